@@ -0,0 +1,42 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.agrona.DirectBuffer;
+
+public interface ReaktiveHttpExchange
+{
+    void sendResponseHeaders(
+        ResponseTemplate template,
+        long responseLength) throws IOException;
+
+    void writeResponse(
+        ByteBuffer buffer) throws IOException;
+
+    void writeResponse(
+        DirectBuffer buffer,
+        int offset,
+        int length) throws IOException;
+
+    void transferResponse(
+        DirectBuffer buffer,
+        int offset,
+        int length,
+        Runnable onTransferred) throws IOException;
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver;
+
+import java.util.concurrent.TimeUnit;
+
+import org.reaktivity.reaktive.httpserver.internal.HttpContextImpl;
+import org.reaktivity.reaktive.httpserver.internal.ResponseCacheImpl;
+
+import com.sun.net.httpserver.HttpContext;
+
+@SuppressWarnings("restriction")
+public final class ResponseCache
+{
+    public static void detach(
+        HttpContext context)
+    {
+        contextImpl(context).responseCache(null);
+    }
+
+    private static HttpContextImpl contextImpl(
+        HttpContext context)
+    {
+        if (!(context instanceof HttpContextImpl))
+        {
+            throw new IllegalArgumentException("unsupported context: " + context);
+        }
+
+        return (HttpContextImpl) context;
+    }
+
+    private ResponseCache()
+    {
+    }
+
+    public static final class Builder
+    {
+        private int capacity = 16 * 1024 * 1024;
+        private int maxEntryLength = 64 * 1024;
+        private long ttl = TimeUnit.SECONDS.toMillis(1L);
+        private String[] varyHeaders = new String[0];
+
+        public Builder capacity(
+            int capacity)
+        {
+            this.capacity = capacity;
+            return this;
+        }
+
+        public Builder maxEntryLength(
+            int maxEntryLength)
+        {
+            this.maxEntryLength = maxEntryLength;
+            return this;
+        }
+
+        public Builder ttl(
+            long ttl,
+            TimeUnit unit)
+        {
+            this.ttl = unit.toMillis(ttl);
+            return this;
+        }
+
+        public Builder vary(
+            String... varyHeaders)
+        {
+            this.varyHeaders = varyHeaders.clone();
+            return this;
+        }
+
+        public void attach(
+            HttpContext context)
+        {
+            contextImpl(context).responseCache(new ResponseCacheImpl(capacity, maxEntryLength, ttl, varyHeaders));
+        }
+    }
+}
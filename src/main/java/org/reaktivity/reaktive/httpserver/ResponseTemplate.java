@@ -0,0 +1,162 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.reaktivity.reaktive.httpserver.internal.types.stream.HttpBeginExFW;
+
+public final class ResponseTemplate
+{
+    private static final int MAX_STRING_LENGTH = 255;
+    private static final int ENCODING_OVERHEAD = 64;
+
+    private final int status;
+    private final String[] names;
+    private final String[] values;
+    private final DirectBuffer extension;
+
+    private ResponseTemplate(
+        int status,
+        String[] names,
+        String[] values,
+        DirectBuffer extension)
+    {
+        this.status = status;
+        this.names = names;
+        this.values = values;
+        this.extension = extension;
+    }
+
+    public int status()
+    {
+        return status;
+    }
+
+    public int headerCount()
+    {
+        return names.length;
+    }
+
+    public String headerName(
+        int index)
+    {
+        return names[index];
+    }
+
+    public String headerValue(
+        int index)
+    {
+        return values[index];
+    }
+
+    public DirectBuffer extension()
+    {
+        return extension;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s[status=%d, headers=%d]", getClass().getSimpleName(), status, names.length - 1);
+    }
+
+    public static final class Builder
+    {
+        private final List<String> names = new ArrayList<>();
+        private final List<String> values = new ArrayList<>();
+
+        private int status = 200;
+
+        public Builder status(
+            int status)
+        {
+            if (status < 100 || status > 999)
+            {
+                throw new IllegalArgumentException("invalid status: " + status);
+            }
+
+            this.status = status;
+            return this;
+        }
+
+        public Builder header(
+            String name,
+            String value)
+        {
+            // header strings are encoded as UTF-8, so limits apply to the encoded length
+            if (name.isEmpty() || name.charAt(0) == ':' || encodedLength(name) > MAX_STRING_LENGTH)
+            {
+                throw new IllegalArgumentException("invalid header name: " + name);
+            }
+
+            if (encodedLength(value) > MAX_STRING_LENGTH)
+            {
+                throw new IllegalArgumentException("header value too long: " + name);
+            }
+
+            names.add(name);
+            values.add(value);
+            return this;
+        }
+
+        public ResponseTemplate build()
+        {
+            final int count = names.size() + 1;
+            final String[] names = new String[count];
+            final String[] values = new String[count];
+
+            names[0] = ":status";
+            values[0] = Integer.toString(status);
+
+            int capacity = ENCODING_OVERHEAD;
+            for (int i = 1; i < count; i++)
+            {
+                names[i] = this.names.get(i - 1);
+                values[i] = this.values.get(i - 1);
+                capacity += encodedLength(names[i]) + encodedLength(values[i]) + ENCODING_OVERHEAD;
+            }
+
+            final UnsafeBuffer buffer = new UnsafeBuffer(new byte[capacity]);
+            final int length = new HttpBeginExFW.Builder()
+                    .wrap(buffer, 0, capacity)
+                    .headers(hs ->
+                    {
+                        for (int i = 0; i < count; i++)
+                        {
+                            final String name = names[i];
+                            final String value = values[i];
+                            hs.item(h -> h.name(name).value(value));
+                        }
+                    })
+                    .build()
+                    .sizeof();
+
+            return new ResponseTemplate(status, names, values, new UnsafeBuffer(buffer.byteArray(), 0, length));
+        }
+
+        private static int encodedLength(
+            String value)
+        {
+            return value.getBytes(UTF_8).length;
+        }
+    }
+}
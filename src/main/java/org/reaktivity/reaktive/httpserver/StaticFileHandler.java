@@ -0,0 +1,595 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+@SuppressWarnings("restriction")
+public final class StaticFileHandler implements HttpHandler
+{
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final int COPY_BUFFER_LENGTH = 8192;
+    private static final String RANGE_UNIT_PREFIX = "bytes=";
+    private static final long[] UNSATISFIABLE = new long[0];
+    private static final ZoneId GMT = ZoneId.of("GMT");
+
+    private final Path root;
+    private final long maxMappedBytes;
+    private final boolean copy;
+    private final Map<Path, MappedFile> mappings;
+
+    private long mappedBytes;
+
+    public StaticFileHandler(
+        Path root,
+        long maxMappedBytes)
+    {
+        this(root, maxMappedBytes, false);
+    }
+
+    // files are mapped by default, so they must be replaced by rename, never rewritten in place
+    // with copy, files are loaded into direct memory and checked against rewrites instead, at the cost of a copy each
+    public StaticFileHandler(
+        Path root,
+        long maxMappedBytes,
+        boolean copy)
+    {
+        this.root = root.toAbsolutePath().normalize();
+        this.maxMappedBytes = maxMappedBytes;
+        this.copy = copy;
+        this.mappings = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    @Override
+    public void handle(
+        HttpExchange exchange) throws IOException
+    {
+        try
+        {
+            final String method = exchange.getRequestMethod();
+            final boolean head = "HEAD".equals(method);
+
+            if (!head && !"GET".equals(method))
+            {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1L);
+                return;
+            }
+
+            final Path file = resolve(exchange);
+            final BasicFileAttributes attributes = file != null ? readAttributes(file) : null;
+
+            if (attributes == null || !attributes.isRegularFile())
+            {
+                exchange.sendResponseHeaders(404, -1L);
+                return;
+            }
+
+            final Headers requestHeaders = exchange.getRequestHeaders();
+            final Headers responseHeaders = exchange.getResponseHeaders();
+            final long size = attributes.size();
+            final long lastModified = attributes.lastModifiedTime().toMillis();
+            final String etag = etag(size, lastModified);
+
+            responseHeaders.set("ETag", etag);
+            responseHeaders.set("Last-Modified", httpDate(lastModified));
+            responseHeaders.set("Accept-Ranges", "bytes");
+
+            if (notModified(requestHeaders, etag, lastModified))
+            {
+                exchange.sendResponseHeaders(304, -1L);
+                return;
+            }
+
+            long first = 0L;
+            long last = size - 1L;
+            int status = 200;
+
+            final String range = head ? null : requestHeaders.getFirst("Range");
+            if (range != null && ifRange(requestHeaders.getFirst("If-Range"), etag, lastModified))
+            {
+                final long[] bounds = parseRange(range, size);
+
+                if (bounds == UNSATISFIABLE)
+                {
+                    responseHeaders.set("Content-Range", "bytes */" + size);
+                    exchange.sendResponseHeaders(416, -1L);
+                    return;
+                }
+
+                if (bounds != null)
+                {
+                    first = bounds[0];
+                    last = bounds[1];
+                    status = 206;
+                    responseHeaders.set("Content-Range", "bytes " + first + "-" + last + "/" + size);
+                }
+            }
+
+            final MappedFile mapped = acquire(file, attributes);
+            final int offset = (int) first;
+            final int length = (int) Math.min(last - first + 1L, mapped.length - offset);
+
+            responseHeaders.set("Content-Type", mapped.contentType);
+            responseHeaders.set("Content-Length", Integer.toString(Math.max(length, 0)));
+
+            if (head || length <= 0)
+            {
+                try
+                {
+                    exchange.sendResponseHeaders(status, -1L);
+                }
+                finally
+                {
+                    mapped.release.run();
+                }
+            }
+            else
+            {
+                try
+                {
+                    exchange.sendResponseHeaders(status, length);
+                }
+                catch (IOException | RuntimeException ex)
+                {
+                    mapped.release.run();
+                    throw ex;
+                }
+
+                transfer(exchange, mapped, offset, length);
+            }
+        }
+        finally
+        {
+            exchange.close();
+        }
+    }
+
+    public synchronized long mappedBytes()
+    {
+        return mappedBytes;
+    }
+
+    private Path resolve(
+        HttpExchange exchange)
+    {
+        final String contextPath = exchange.getHttpContext().getPath();
+        final String requestPath = exchange.getRequestURI().getPath();
+
+        String relativePath = requestPath.startsWith(contextPath) ? requestPath.substring(contextPath.length()) : requestPath;
+        while (relativePath.startsWith("/"))
+        {
+            relativePath = relativePath.substring(1);
+        }
+
+        final Path file = root.resolve(relativePath).normalize();
+
+        return file.startsWith(root) ? file : null;
+    }
+
+    private static BasicFileAttributes readAttributes(
+        Path file)
+    {
+        try
+        {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        }
+        catch (IOException ex)
+        {
+            return null;
+        }
+    }
+
+    private static boolean notModified(
+        Headers requestHeaders,
+        String etag,
+        long lastModified)
+    {
+        final String ifNoneMatch = requestHeaders.getFirst("If-None-Match");
+
+        if (ifNoneMatch != null)
+        {
+            return matchesAny(ifNoneMatch, etag);
+        }
+
+        final long ifModifiedSince = parseHttpDate(requestHeaders.getFirst("If-Modified-Since"));
+
+        return ifModifiedSince != -1L && lastModified / 1000L <= ifModifiedSince / 1000L;
+    }
+
+    private static boolean ifRange(
+        String ifRange,
+        String etag,
+        long lastModified)
+    {
+        if (ifRange == null)
+        {
+            return true;
+        }
+
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/"))
+        {
+            return ifRange.equals(etag);
+        }
+
+        final long date = parseHttpDate(ifRange);
+
+        return date != -1L && date / 1000L == lastModified / 1000L;
+    }
+
+    private static boolean matchesAny(
+        String candidates,
+        String etag)
+    {
+        for (String candidate : candidates.split(","))
+        {
+            String trimmed = candidate.trim();
+
+            if ("*".equals(trimmed))
+            {
+                return true;
+            }
+
+            if (trimmed.startsWith("W/"))
+            {
+                trimmed = trimmed.substring(2);
+            }
+
+            if (trimmed.equals(etag))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static long[] parseRange(
+        String range,
+        long size)
+    {
+        if (!range.startsWith(RANGE_UNIT_PREFIX) || range.indexOf(',') != -1)
+        {
+            return null;
+        }
+
+        final String spec = range.substring(RANGE_UNIT_PREFIX.length()).trim();
+        final int dash = spec.indexOf('-');
+
+        if (dash == -1)
+        {
+            return null;
+        }
+
+        try
+        {
+            final String start = spec.substring(0, dash).trim();
+            final String end = spec.substring(dash + 1).trim();
+
+            long first;
+            long last;
+
+            if (start.isEmpty())
+            {
+                final long suffix = Long.parseLong(end);
+
+                if (suffix <= 0L || size == 0L)
+                {
+                    return UNSATISFIABLE;
+                }
+
+                first = Math.max(size - suffix, 0L);
+                last = size - 1L;
+            }
+            else
+            {
+                first = Long.parseLong(start);
+                last = end.isEmpty() ? size - 1L : Math.min(Long.parseLong(end), size - 1L);
+
+                if (first >= size)
+                {
+                    return UNSATISFIABLE;
+                }
+
+                if (last < first)
+                {
+                    return null;
+                }
+            }
+
+            return new long[] { first, last };
+        }
+        catch (NumberFormatException ex)
+        {
+            return null;
+        }
+    }
+
+    private static String etag(
+        long size,
+        long lastModified)
+    {
+        return "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    private static String httpDate(
+        long millis)
+    {
+        return RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(millis).atZone(GMT));
+    }
+
+    private static long parseHttpDate(
+        String value)
+    {
+        if (value != null)
+        {
+            try
+            {
+                return ZonedDateTime.parse(value, RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            }
+            catch (DateTimeParseException ex)
+            {
+                // ignore invalid date
+            }
+        }
+
+        return -1L;
+    }
+
+    private static void transfer(
+        HttpExchange exchange,
+        MappedFile mapped,
+        int offset,
+        int length) throws IOException
+    {
+        if (exchange instanceof ReaktiveHttpExchange)
+        {
+            ((ReaktiveHttpExchange) exchange).transferResponse(mapped.buffer, offset, length, mapped.release);
+        }
+        else
+        {
+            try
+            {
+                final OutputStream output = exchange.getResponseBody();
+                final byte[] bytes = new byte[COPY_BUFFER_LENGTH];
+
+                for (int progress = 0; progress < length; progress += bytes.length)
+                {
+                    final int fragment = Math.min(bytes.length, length - progress);
+                    mapped.buffer.getBytes(offset + progress, bytes, 0, fragment);
+                    output.write(bytes, 0, fragment);
+                }
+            }
+            finally
+            {
+                mapped.release.run();
+            }
+        }
+    }
+
+    private MappedFile acquire(
+        Path file,
+        BasicFileAttributes attributes) throws IOException
+    {
+        MappedFile mapped = lookup(file, attributes);
+
+        if (mapped == null)
+        {
+            if (attributes.size() > Integer.MAX_VALUE)
+            {
+                throw new IOException("file too large to map: " + file);
+            }
+
+            mapped = install(file, new MappedFile(file, attributes));
+        }
+
+        return mapped;
+    }
+
+    private synchronized MappedFile lookup(
+        Path file,
+        BasicFileAttributes attributes)
+    {
+        MappedFile mapped = mappings.get(file);
+
+        if (mapped != null && !mapped.matches(attributes))
+        {
+            mappings.remove(file);
+            retire(mapped);
+            mapped = null;
+        }
+
+        if (mapped != null)
+        {
+            mapped.references++;
+        }
+
+        return mapped;
+    }
+
+    private synchronized MappedFile install(
+        Path file,
+        MappedFile candidate)
+    {
+        MappedFile mapped = mappings.get(file);
+
+        if (mapped != null && mapped.matches(candidate))
+        {
+            candidate.unmap();
+        }
+        else
+        {
+            if (mapped != null)
+            {
+                mappings.remove(file);
+                retire(mapped);
+            }
+
+            mapped = candidate;
+            mappings.put(file, mapped);
+            mappedBytes += mapped.length;
+        }
+
+        mapped.references++;
+
+        evict();
+
+        return mapped;
+    }
+
+    private synchronized void release(
+        MappedFile mapped)
+    {
+        mapped.references--;
+
+        if (mapped.retired && mapped.references == 0)
+        {
+            mapped.unmap();
+        }
+
+        evict();
+    }
+
+    private void evict()
+    {
+        final Iterator<MappedFile> iterator = mappings.values().iterator();
+        while (mappedBytes > maxMappedBytes && iterator.hasNext())
+        {
+            final MappedFile mapped = iterator.next();
+
+            if (mapped.references == 0)
+            {
+                iterator.remove();
+                retire(mapped);
+            }
+        }
+    }
+
+    private void retire(
+        MappedFile mapped)
+    {
+        mapped.retired = true;
+        mappedBytes -= mapped.length;
+
+        if (mapped.references == 0)
+        {
+            mapped.unmap();
+        }
+    }
+
+    private final class MappedFile
+    {
+        private final ByteBuffer mapping;
+        private final UnsafeBuffer buffer;
+        private final int length;
+        private final long lastModified;
+        private final Object fileKey;
+        private final String contentType;
+        private final Runnable release;
+
+        private int references;
+        private boolean retired;
+
+        private MappedFile(
+            Path file,
+            BasicFileAttributes attributes) throws IOException
+        {
+            this.length = (int) attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+            this.fileKey = attributes.fileKey();
+
+            try (FileChannel channel = FileChannel.open(file, READ))
+            {
+                this.mapping = copy ? load(channel, file) : channel.map(READ_ONLY, 0L, length);
+            }
+
+            this.buffer = new UnsafeBuffer(mapping);
+
+            final String contentType = URLConnection.guessContentTypeFromName(file.getFileName().toString());
+            this.contentType = contentType != null ? contentType : DEFAULT_CONTENT_TYPE;
+            this.release = () -> StaticFileHandler.this.release(this);
+        }
+
+        private ByteBuffer load(
+            FileChannel channel,
+            Path file) throws IOException
+        {
+            final ByteBuffer memory = ByteBuffer.allocateDirect(length);
+
+            int read = 0;
+            while (memory.hasRemaining() && read != -1)
+            {
+                read = channel.read(memory, memory.position());
+            }
+
+            final BasicFileAttributes attributes = readAttributes(file);
+
+            if (memory.hasRemaining() || attributes == null || !matches(attributes))
+            {
+                IoUtil.unmap(memory);
+                throw new IOException("file modified while loading: " + file);
+            }
+
+            return memory;
+        }
+
+        private boolean matches(
+            BasicFileAttributes attributes)
+        {
+            return attributes.size() == length &&
+                   attributes.lastModifiedTime().toMillis() == lastModified &&
+                   (fileKey == null || fileKey.equals(attributes.fileKey()));
+        }
+
+        private boolean matches(
+            MappedFile mapped)
+        {
+            return mapped.length == length &&
+                   mapped.lastModified == lastModified &&
+                   (fileKey == null || fileKey.equals(mapped.fileKey));
+        }
+
+        private void unmap()
+        {
+            IoUtil.unmap(mapping);
+        }
+    }
+}
@@ -23,6 +23,7 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.WatchService;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -37,10 +38,28 @@ import org.agrona.concurrent.ringbuffer.RingBuffer;
 import org.agrona.concurrent.status.CountersManager;
 import org.reaktivity.nukleus.Configuration;
 import org.reaktivity.nukleus.http.internal.layouts.ControlLayout;
+import org.reaktivity.reaktive.httpserver.internal.layouts.CaptureLayout;
 
 public final class Context implements Closeable
 {
+    public static final String BUFFER_SLOT_CAPACITY_PROPERTY_NAME = "httpserver.buffer.slot.capacity";
+    public static final String STREAM_POOL_CAPACITY_PROPERTY_NAME = "httpserver.stream.pool.capacity";
+    public static final String WORKER_COUNT_PROPERTY_NAME = "httpserver.worker.count";
+    public static final String STREAM_IDLE_TIMEOUT_PROPERTY_NAME = "httpserver.stream.idle.timeout";
+    public static final String WINDOW_THRESHOLD_PROPERTY_NAME = "httpserver.window.threshold";
+    public static final String CAPTURE_PATH_PROPERTY_NAME = "httpserver.capture.path";
+    public static final String CAPTURE_CAPACITY_PROPERTY_NAME = "httpserver.capture.capacity";
+    public static final String ROUTE_LATENCY_PROPERTY_NAME = "httpserver.route.latency";
+
+    private static final int BUFFER_SLOT_CAPACITY_DEFAULT = 65536;
+    private static final int STREAM_POOL_CAPACITY_DEFAULT = 0;
+    private static final int WORKER_COUNT_DEFAULT = 1;
+    private static final long STREAM_IDLE_TIMEOUT_DEFAULT = 0L;
+    private static final int WINDOW_THRESHOLD_DEFAULT = 25;
+    private static final long CAPTURE_CAPACITY_DEFAULT = 64L * 1024L * 1024L;
+
     private final ControlLayout.Builder controlRW = new ControlLayout.Builder();
+    private final CaptureLayout.Builder captureRW = new CaptureLayout.Builder();
 
     private boolean readonly;
     private Path configDirectory;
@@ -48,6 +67,13 @@ public final class Context implements Closeable
     private int maximumStreamsCount;
     private int streamsBufferCapacity;
     private int throttleBufferCapacity;
+    private int bufferSlotCapacity;
+    private int streamPoolCapacity;
+    private int workerCount;
+    private long streamIdleTimeout;
+    private int windowThreshold;
+    private CaptureLayout capture;
+    private boolean routeLatency;
     private Function<String, Path> sourceStreamsPath;
     private BiFunction<String, String, Path> targetStreamsPath;
     private IdleStrategy idleStrategy;
@@ -91,6 +117,78 @@ public final class Context implements Closeable
         return throttleBufferCapacity;
     }
 
+    public Context bufferSlotCapacity(
+        int bufferSlotCapacity)
+    {
+        this.bufferSlotCapacity = bufferSlotCapacity;
+        return this;
+    }
+
+    public int bufferSlotCapacity()
+    {
+        return bufferSlotCapacity;
+    }
+
+    public Context streamPoolCapacity(
+        int streamPoolCapacity)
+    {
+        this.streamPoolCapacity = streamPoolCapacity;
+        return this;
+    }
+
+    public int streamPoolCapacity()
+    {
+        return streamPoolCapacity;
+    }
+
+    public Context workerCount(
+        int workerCount)
+    {
+        this.workerCount = workerCount;
+        return this;
+    }
+
+    public int workerCount()
+    {
+        return workerCount;
+    }
+
+    public Context streamIdleTimeout(
+        long streamIdleTimeout)
+    {
+        this.streamIdleTimeout = streamIdleTimeout;
+        return this;
+    }
+
+    public long streamIdleTimeout()
+    {
+        return streamIdleTimeout;
+    }
+
+    public Context windowThreshold(
+        int windowThreshold)
+    {
+        this.windowThreshold = windowThreshold;
+        return this;
+    }
+
+    public int windowThreshold()
+    {
+        return windowThreshold;
+    }
+
+    public Context capture(
+        CaptureLayout capture)
+    {
+        this.capture = capture;
+        return this;
+    }
+
+    public CaptureLayout capture()
+    {
+        return capture;
+    }
+
     public int maxMessageLength()
     {
         // see RingBuffer.maxMessageLength()
@@ -241,6 +339,18 @@ public final class Context implements Closeable
         return countersManager;
     }
 
+    public Context routeLatency(
+        boolean routeLatency)
+    {
+        this.routeLatency = routeLatency;
+        return this;
+    }
+
+    public boolean routeLatency()
+    {
+        return routeLatency;
+    }
+
     public Counters counters()
     {
         return counters;
@@ -261,6 +371,27 @@ public final class Context implements Closeable
 
             this.maximumControlResponseLength = config.responseBufferCapacity() / 8;
 
+            bufferSlotCapacity(Integer.getInteger(BUFFER_SLOT_CAPACITY_PROPERTY_NAME, BUFFER_SLOT_CAPACITY_DEFAULT));
+
+            streamPoolCapacity(Integer.getInteger(STREAM_POOL_CAPACITY_PROPERTY_NAME, STREAM_POOL_CAPACITY_DEFAULT));
+
+            workerCount(Integer.getInteger(WORKER_COUNT_PROPERTY_NAME, WORKER_COUNT_DEFAULT));
+
+            streamIdleTimeout(Long.getLong(STREAM_IDLE_TIMEOUT_PROPERTY_NAME, STREAM_IDLE_TIMEOUT_DEFAULT));
+
+            windowThreshold(Integer.getInteger(WINDOW_THRESHOLD_PROPERTY_NAME, WINDOW_THRESHOLD_DEFAULT));
+
+            routeLatency(Boolean.getBoolean(ROUTE_LATENCY_PROPERTY_NAME));
+
+            final String capturePath = System.getProperty(CAPTURE_PATH_PROPERTY_NAME);
+            if (capturePath != null && capture == null)
+            {
+                capture(captureRW.path(Paths.get(capturePath))
+                                 .capacity(Long.getLong(CAPTURE_CAPACITY_PROPERTY_NAME, CAPTURE_CAPACITY_DEFAULT))
+                                 .readonly(false)
+                                 .build());
+            }
+
             // default FileSystem cannot be closed
             watchService(FileSystems.getDefault().newWatchService());
             streamsPath(configDirectory.resolve("httpserver/streams"));
@@ -298,6 +429,7 @@ public final class Context implements Closeable
     {
         quietClose(watchService);
         quietClose(controlRO);
+        quietClose(capture);
     }
 
     private void concludeCounters()
@@ -311,7 +443,7 @@ public final class Context implements Closeable
 
         if (counters == null)
         {
-            counters = new Counters(countersManager);
+            counters = new Counters(countersManager, routeLatency);
         }
     }
 }
@@ -15,18 +15,63 @@
  */
 package org.reaktivity.reaktive.httpserver.internal;
 
+import static org.agrona.CloseHelper.quietClose;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import org.agrona.concurrent.status.AtomicCounter;
 import org.agrona.concurrent.status.CountersManager;
 
 public final class Counters implements AutoCloseable
 {
+    private static final int STATUS_CLASS_COUNT = 6;
+
+    private final CountersManager countersManager;
+    private final boolean routeLatency;
+    private final List<RouteCounters> routes;
+    private final LatencyHistogram[] latencyByStatusClass;
     private final AtomicCounter routesSourced;
     private final AtomicCounter streamsSourced;
+    private final AtomicCounter writesDeferred;
+    private final AtomicCounter writesDropped;
+    private final AtomicCounter streamPoolHits;
+    private final AtomicCounter streamPoolMisses;
+    private final AtomicCounter streamsActive;
+    private final AtomicCounter throttlesActive;
+    private final AtomicCounter streamsReaped;
+    private final AtomicCounter responseCacheHits;
+    private final AtomicCounter responseCacheMisses;
+    private final AtomicCounter routeCountersUnavailable;
+
+    private volatile boolean routesExhausted;
 
-    Counters(CountersManager countersManager)
+    Counters(
+        CountersManager countersManager,
+        boolean routeLatency)
     {
+        this.countersManager = countersManager;
+        this.routeLatency = routeLatency;
+        this.routes = new ArrayList<>();
+        this.latencyByStatusClass = new LatencyHistogram[STATUS_CLASS_COUNT];
+
         routesSourced = countersManager.newCounter("routesSourced");
         streamsSourced = countersManager.newCounter("streamsSourced");
+        writesDeferred = countersManager.newCounter("writesDeferred");
+        writesDropped = countersManager.newCounter("writesDropped");
+        streamPoolHits = countersManager.newCounter("streamPoolHits");
+        streamPoolMisses = countersManager.newCounter("streamPoolMisses");
+        streamsActive = countersManager.newCounter("streamsActive");
+        throttlesActive = countersManager.newCounter("throttlesActive");
+        streamsReaped = countersManager.newCounter("streamsReaped");
+        responseCacheHits = countersManager.newCounter("responseCacheHits");
+        responseCacheMisses = countersManager.newCounter("responseCacheMisses");
+        routeCountersUnavailable = countersManager.newCounter("routeCountersUnavailable");
+
+        for (int i = 1; i < STATUS_CLASS_COUNT; i++)
+        {
+            latencyByStatusClass[i] = new LatencyHistogram(countersManager, String.format("responses.%dxx.latency", i));
+        }
     }
 
     @Override
@@ -34,6 +79,96 @@ public final class Counters implements AutoCloseable
     {
         routesSourced.close();
         streamsSourced.close();
+        writesDeferred.close();
+        writesDropped.close();
+        streamPoolHits.close();
+        streamPoolMisses.close();
+        streamsActive.close();
+        throttlesActive.close();
+        streamsReaped.close();
+        responseCacheHits.close();
+        responseCacheMisses.close();
+        routeCountersUnavailable.close();
+
+        for (int i = 1; i < STATUS_CLASS_COUNT; i++)
+        {
+            latencyByStatusClass[i].close();
+        }
+
+        synchronized (this)
+        {
+            for (RouteCounters route : routes)
+            {
+                route.close();
+            }
+            routes.clear();
+        }
+    }
+
+    public RouteCounters routeCounters(
+        HttpContextImpl context)
+    {
+        RouteCounters route = context.counters();
+
+        if (route == null && !routesExhausted)
+        {
+            synchronized (this)
+            {
+                route = context.counters();
+
+                if (route == null && !routesExhausted)
+                {
+                    try
+                    {
+                        route = new RouteCounters(countersManager, context.getPath(), routeLatency);
+                        routes.add(route);
+                        context.counters(route);
+                    }
+                    catch (IllegalArgumentException | IllegalStateException ex)
+                    {
+                        // labels are bounded, so only a full counters buffer gets here
+                        // serve the route without per-route metrics
+                        routesExhausted = true;
+                    }
+                }
+            }
+        }
+
+        if (route == null)
+        {
+            routeCountersUnavailable.increment();
+        }
+
+        return route;
+    }
+
+    public void releaseRouteCounters(
+        HttpContextImpl context)
+    {
+        synchronized (this)
+        {
+            final RouteCounters route = context.counters();
+
+            if (route != null)
+            {
+                context.counters(null);
+                routes.remove(route);
+                quietClose(route);
+                routesExhausted = false;
+            }
+        }
+    }
+
+    public void recordLatency(
+        int status,
+        long nanos)
+    {
+        final int statusClass = status / 100;
+
+        if (statusClass > 0 && statusClass < STATUS_CLASS_COUNT)
+        {
+            latencyByStatusClass[statusClass].record(nanos);
+        }
     }
 
     public AtomicCounter routesSourced()
@@ -45,4 +180,49 @@ public final class Counters implements AutoCloseable
     {
         return streamsSourced;
     }
+
+    public AtomicCounter writesDeferred()
+    {
+        return writesDeferred;
+    }
+
+    public AtomicCounter writesDropped()
+    {
+        return writesDropped;
+    }
+
+    public AtomicCounter streamPoolHits()
+    {
+        return streamPoolHits;
+    }
+
+    public AtomicCounter streamPoolMisses()
+    {
+        return streamPoolMisses;
+    }
+
+    public AtomicCounter streamsActive()
+    {
+        return streamsActive;
+    }
+
+    public AtomicCounter throttlesActive()
+    {
+        return throttlesActive;
+    }
+
+    public AtomicCounter streamsReaped()
+    {
+        return streamsReaped;
+    }
+
+    public AtomicCounter responseCacheHits()
+    {
+        return responseCacheHits;
+    }
+
+    public AtomicCounter responseCacheMisses()
+    {
+        return responseCacheMisses;
+    }
 }
@@ -36,6 +36,8 @@ public final class HttpContextImpl extends HttpContext
     private Map<String, Object> attributes;
     private List<Filter> filters;
     private Authenticator authenticator;
+    private volatile RouteCounters counters;
+    private volatile ResponseCacheImpl responseCache;
 
     HttpContextImpl(
         HttpServer server,
@@ -45,6 +47,28 @@ public final class HttpContextImpl extends HttpContext
         this.path = path;
     }
 
+    RouteCounters counters()
+    {
+        return counters;
+    }
+
+    void counters(
+        RouteCounters counters)
+    {
+        this.counters = counters;
+    }
+
+    public ResponseCacheImpl responseCache()
+    {
+        return responseCache;
+    }
+
+    public void responseCache(
+        ResponseCacheImpl responseCache)
+    {
+        this.responseCache = responseCache;
+    }
+
     @Override
     public HttpHandler getHandler()
     {
@@ -0,0 +1,256 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.agrona.DirectBuffer;
+
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpServer;
+
+@SuppressWarnings("restriction")
+final class HttpContextTable
+{
+    private static final Node EMPTY = new Node(new byte[0], null, new byte[0], new Node[0]);
+
+    private final Map<String, HttpContextImpl> contextsByPath;
+
+    private volatile Node root;
+
+    HttpContextTable()
+    {
+        this.contextsByPath = new HashMap<>();
+        this.root = EMPTY;
+    }
+
+    HttpContext resolve(
+        DirectBuffer buffer,
+        int offset,
+        int length)
+    {
+        final int limit = offset + length;
+
+        HttpContext context = null;
+        Node node = root;
+        int progress = offset;
+
+        while (node != null && node.matches(buffer, progress, limit))
+        {
+            progress += node.edge.length;
+
+            if (node.context != null)
+            {
+                context = node.context;
+            }
+
+            node = progress < limit ? node.child(buffer.getByte(progress)) : null;
+        }
+
+        return context;
+    }
+
+    synchronized HttpContextImpl add(
+        HttpServer server,
+        String path)
+    {
+        if (contextsByPath.containsKey(path))
+        {
+            throw new IllegalArgumentException("context already exists");
+        }
+
+        final HttpContextImpl context = new HttpContextImpl(server, path);
+
+        contextsByPath.put(path, context);
+        compile();
+
+        return context;
+    }
+
+    synchronized HttpContextImpl remove(
+        String path)
+    {
+        final HttpContextImpl context = contextsByPath.remove(path);
+
+        if (context != null)
+        {
+            compile();
+        }
+
+        return context;
+    }
+
+    private void compile()
+    {
+        final int size = contextsByPath.size();
+        final byte[][] paths = new byte[size][];
+        final HttpContextImpl[] contexts = new HttpContextImpl[size];
+
+        int index = 0;
+        for (HttpContextImpl context : contextsByPath.values())
+        {
+            paths[index] = context.getPath().getBytes(UTF_8);
+            contexts[index] = context;
+            index++;
+        }
+
+        sort(paths, contexts);
+
+        this.root = size != 0 ? compile(paths, contexts, 0, size, 0) : EMPTY;
+    }
+
+    private static Node compile(
+        byte[][] paths,
+        HttpContextImpl[] contexts,
+        int from,
+        int to,
+        int depth)
+    {
+        final byte[] first = paths[from];
+        final byte[] last = paths[to - 1];
+
+        int end = depth;
+        while (end < first.length && end < last.length && first[end] == last[end])
+        {
+            end++;
+        }
+
+        final byte[] edge = Arrays.copyOfRange(first, depth, end);
+
+        HttpContextImpl context = null;
+        if (first.length == end)
+        {
+            context = contexts[from++];
+        }
+
+        int count = 0;
+        for (int i = from; i < to; i = skip(paths, i, to, end))
+        {
+            count++;
+        }
+
+        final byte[] keys = new byte[count];
+        final Node[] children = new Node[count];
+
+        for (int i = from, n = 0; i < to; n++)
+        {
+            final int next = skip(paths, i, to, end);
+            keys[n] = paths[i][end];
+            children[n] = compile(paths, contexts, i, next, end);
+            i = next;
+        }
+
+        return new Node(edge, context, keys, children);
+    }
+
+    private static int skip(
+        byte[][] paths,
+        int from,
+        int to,
+        int depth)
+    {
+        final byte key = paths[from][depth];
+
+        int next = from + 1;
+        while (next < to && paths[next][depth] == key)
+        {
+            next++;
+        }
+
+        return next;
+    }
+
+    private static void sort(
+        byte[][] paths,
+        HttpContextImpl[] contexts)
+    {
+        final byte[][] unsortedPaths = paths.clone();
+        final HttpContextImpl[] unsortedContexts = contexts.clone();
+        final Integer[] order = new Integer[paths.length];
+
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (a, b) -> compare(unsortedPaths[a], unsortedPaths[b]));
+
+        for (int i = 0; i < order.length; i++)
+        {
+            paths[i] = unsortedPaths[order[i]];
+            contexts[i] = unsortedContexts[order[i]];
+        }
+    }
+
+    private static int compare(
+        byte[] a,
+        byte[] b)
+    {
+        final int length = Math.min(a.length, b.length);
+
+        for (int i = 0; i < length; i++)
+        {
+            if (a[i] != b[i])
+            {
+                return Byte.compare(a[i], b[i]);
+            }
+        }
+
+        return a.length - b.length;
+    }
+
+    private static final class Node
+    {
+        private final byte[] edge;
+        private final HttpContextImpl context;
+        private final byte[] keys;
+        private final Node[] children;
+
+        private Node(
+            byte[] edge,
+            HttpContextImpl context,
+            byte[] keys,
+            Node[] children)
+        {
+            this.edge = edge;
+            this.context = context;
+            this.keys = keys;
+            this.children = children;
+        }
+
+        private boolean matches(
+            DirectBuffer buffer,
+            int offset,
+            int limit)
+        {
+            boolean matches = limit - offset >= edge.length;
+
+            for (int i = 0; matches && i < edge.length; i++)
+            {
+                matches = buffer.getByte(offset + i) == edge[i];
+            }
+
+            return matches;
+        }
+
+        private Node child(
+            byte key)
+        {
+            final int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+}
@@ -20,10 +20,15 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.util.Map;
-import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
 
-import org.reaktivity.reaktive.httpserver.internal.types.HttpHeaderFW;
+import org.agrona.DirectBuffer;
+import org.agrona.LangUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.reaktivity.reaktive.httpserver.ReaktiveHttpExchange;
+import org.reaktivity.reaktive.httpserver.ResponseTemplate;
 import org.reaktivity.reaktive.httpserver.internal.types.stream.HttpBeginExFW;
 
 import com.sun.net.httpserver.Headers;
@@ -32,8 +37,10 @@ import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpPrincipal;
 
 @SuppressWarnings("restriction")
-public final class HttpExchangeImpl extends HttpExchange
+public final class HttpExchangeImpl extends HttpExchange implements ReaktiveHttpExchange
 {
+    private static final byte[] EMPTY_BYTES = new byte[0];
+
     private HttpContext httpContext;
 
     private InetSocketAddress localAddress;
@@ -42,7 +49,7 @@ public final class HttpExchangeImpl extends HttpExchange
     private String requestMethod;
     private URI requestURI;
     private String protocol;
-    private Headers requestHeaders;
+    private final HttpRequestHeaders requestHeaders = new HttpRequestHeaders();
 
     private HttpPrincipal principal;
 
@@ -50,17 +57,18 @@ public final class HttpExchangeImpl extends HttpExchange
     private InputStream requestBodyOverride;
 
     private int responseCode;
-    private Headers responseHeaders;
+    private ResponseTemplate responseTemplate;
+    private final Headers responseHeaders = new Headers();
 
     private OutputStream responseBody;
     private OutputStream responseBodyOverride;
+    private final UnsafeBuffer responseBufferRO = new UnsafeBuffer(EMPTY_BYTES);
 
     private Map<String, Object> attributes;
 
     private boolean httpBeginSent;
 
-    private Consumer<HttpExchange> doHttpBegin;
-    private Consumer<HttpExchange> doHttpEnd;
+    private ObjLongConsumer<HttpExchange> doHttpBegin;
 
     @Override
     public HttpPrincipal getPrincipal()
@@ -83,12 +91,22 @@ public final class HttpExchangeImpl extends HttpExchange
     @Override
     public URI getRequestURI()
     {
+        if (requestURI == null)
+        {
+            requestURI = URI.create(requestHeaders.pseudoHeader(":path"));
+        }
+
         return requestURI;
     }
 
     @Override
     public String getRequestMethod()
     {
+        if (requestMethod == null)
+        {
+            requestMethod = requestHeaders.pseudoHeader(":method");
+        }
+
         return requestMethod;
     }
 
@@ -101,7 +119,15 @@ public final class HttpExchangeImpl extends HttpExchange
     @Override
     public void close()
     {
-        throw new UnsupportedOperationException("not yet implemented");
+        try
+        {
+            getRequestBody().close();
+            getResponseBody().close();
+        }
+        catch (IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
     }
 
     @Override
@@ -152,15 +178,94 @@ public final class HttpExchangeImpl extends HttpExchange
 
         this.responseCode = responseCode;
 
-        doHttpBegin.accept(this);
         httpBeginSent = true;
+        doHttpBegin.accept(this, responseLength);
+    }
 
-        if (responseLength == -1L)
+    @Override
+    public void sendResponseHeaders(
+        ResponseTemplate template,
+        long responseLength) throws IOException
+    {
+        if (httpBeginSent)
         {
-            doHttpEnd.accept(this);
+            throw new IOException("headers already sent");
+        }
+
+        this.responseCode = template.status();
+        this.responseTemplate = template;
+
+        httpBeginSent = true;
+        doHttpBegin.accept(this, responseLength);
+    }
+
+    @Override
+    public void writeResponse(
+        ByteBuffer buffer) throws IOException
+    {
+        responseBufferRO.wrap(buffer, buffer.position(), buffer.remaining());
+        try
+        {
+            writeResponse(responseBufferRO, 0, responseBufferRO.capacity());
+            buffer.position(buffer.limit());
+        }
+        finally
+        {
+            responseBufferRO.wrap(EMPTY_BYTES);
         }
     }
 
+    @Override
+    public void writeResponse(
+        DirectBuffer buffer,
+        int offset,
+        int length) throws IOException
+    {
+        final OutputStream responseBody = getResponseBody();
+
+        if (responseBody instanceof DirectBufferOutput)
+        {
+            ((DirectBufferOutput) responseBody).write(buffer, offset, length);
+        }
+        else
+        {
+            final byte[] bytes = new byte[length];
+            buffer.getBytes(offset, bytes);
+            responseBody.write(bytes);
+        }
+    }
+
+    @Override
+    public void transferResponse(
+        DirectBuffer buffer,
+        int offset,
+        int length,
+        Runnable onTransferred) throws IOException
+    {
+        final OutputStream responseBody = getResponseBody();
+
+        if (responseBody instanceof DirectBufferOutput)
+        {
+            ((DirectBufferOutput) responseBody).transfer(buffer, offset, length, onTransferred);
+        }
+        else
+        {
+            try
+            {
+                writeResponse(buffer, offset, length);
+            }
+            finally
+            {
+                onTransferred.run();
+            }
+        }
+    }
+
+    public ResponseTemplate responseTemplate()
+    {
+        return responseTemplate;
+    }
+
     @Override
     public InetSocketAddress getRemoteAddress()
     {
@@ -173,6 +278,15 @@ public final class HttpExchangeImpl extends HttpExchange
         return responseCode;
     }
 
+    public void resetResponse(
+        int responseCode)
+    {
+        this.responseCode = responseCode;
+        this.responseTemplate = null;
+        this.responseHeaders.clear();
+        this.httpBeginSent = true;
+    }
+
     @Override
     public InetSocketAddress getLocalAddress()
     {
@@ -222,8 +336,9 @@ public final class HttpExchangeImpl extends HttpExchange
     public void init(
         HttpContext httpContext,
         HttpBeginExFW beginEx,
-        Consumer<HttpExchange> doHttpBegin,
-        Consumer<HttpExchange> doHttpEnd)
+        InputStream requestBody,
+        OutputStream responseBody,
+        ObjLongConsumer<HttpExchange> doHttpBegin)
     {
         this.httpContext = httpContext;
 
@@ -231,40 +346,23 @@ public final class HttpExchangeImpl extends HttpExchange
         this.remoteAddress = null;  // TODO
 
         this.protocol = "HTTP/1.1";
-        this.requestHeaders = new Headers();
-        beginEx.headers().forEach(this::processHeader);
+        this.requestMethod = null;
+        this.requestURI = null;
+        this.requestHeaders.wrap(beginEx);
+
+        this.requestBody = requestBody;
+        this.requestBodyOverride = null;
 
         this.responseCode = -1;
-        this.responseHeaders = new Headers();
+        this.responseTemplate = null;
+        this.responseHeaders.clear();
+
+        this.responseBody = responseBody;
+        this.responseBodyOverride = null;
 
         this.attributes = null;
 
+        this.httpBeginSent = false;
         this.doHttpBegin = doHttpBegin;
-        this.doHttpEnd = doHttpEnd;
-    }
-
-    private void processHeader(
-        HttpHeaderFW header)
-    {
-        final String name = header.name().asString();
-        final String value = header.value().asString();
-
-        // detect colon-prefixed pseudo header
-        if (name.charAt(0) == ':')
-        {
-            switch (name)
-            {
-            case ":method":
-                this.requestMethod = value;
-                break;
-            case ":path":
-                this.requestURI = URI.create(value);
-                break;
-            }
-        }
-        else
-        {
-            requestHeaders.add(name, value);
-        }
     }
 }
@@ -0,0 +1,311 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver.internal;
+
+import static org.agrona.BitUtil.SIZE_OF_BYTE;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.reaktivity.reaktive.httpserver.internal.types.HttpHeaderFW;
+import org.reaktivity.reaktive.httpserver.internal.types.StringFW;
+import org.reaktivity.reaktive.httpserver.internal.types.stream.HttpBeginExFW;
+
+import com.sun.net.httpserver.Headers;
+
+@SuppressWarnings("restriction")
+final class HttpRequestHeaders extends Headers
+{
+    private static final int STRING_LENGTH_SIZE = SIZE_OF_BYTE;
+
+    private final HttpBeginExFW beginExRO = new HttpBeginExFW();
+    private final MutableDirectBuffer buffer = new ExpandableArrayBuffer();
+
+    private final Consumer<HttpHeaderFW> matchFirst = this::matchFirst;
+    private final Consumer<HttpHeaderFW> matchAll = this::matchAll;
+    private final Consumer<HttpHeaderFW> addHeader = this::addHeader;
+
+    private boolean materialized;
+    private String name;
+    private String value;
+    private List<String> values;
+
+    void wrap(
+        HttpBeginExFW beginEx)
+    {
+        final int length = beginEx.sizeof();
+
+        buffer.putBytes(0, beginEx.buffer(), beginEx.offset(), length);
+        beginExRO.wrap(buffer, 0, length);
+
+        super.clear();
+        this.materialized = false;
+    }
+
+    String pseudoHeader(
+        String name)
+    {
+        return findFirst(name);
+    }
+
+    @Override
+    public boolean containsKey(
+        Object key)
+    {
+        if (materialized)
+        {
+            return super.containsKey(key);
+        }
+
+        return key instanceof String && !isPseudoHeader((String) key) && findFirst((String) key) != null;
+    }
+
+    @Override
+    public List<String> get(
+        Object key)
+    {
+        if (materialized)
+        {
+            return super.get(key);
+        }
+
+        return key instanceof String && !isPseudoHeader((String) key) ? findAll((String) key) : null;
+    }
+
+    @Override
+    public String getFirst(
+        String key)
+    {
+        if (materialized)
+        {
+            return super.getFirst(key);
+        }
+
+        return key != null && !isPseudoHeader(key) ? findFirst(key) : null;
+    }
+
+    @Override
+    public int size()
+    {
+        materialize();
+        return super.size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        materialize();
+        return super.isEmpty();
+    }
+
+    @Override
+    public boolean containsValue(
+        Object value)
+    {
+        materialize();
+        return super.containsValue(value);
+    }
+
+    @Override
+    public List<String> put(
+        String key,
+        List<String> value)
+    {
+        materialize();
+        return super.put(key, value);
+    }
+
+    @Override
+    public void add(
+        String key,
+        String value)
+    {
+        materialize();
+        super.add(key, value);
+    }
+
+    @Override
+    public void set(
+        String key,
+        String value)
+    {
+        materialize();
+        super.set(key, value);
+    }
+
+    @Override
+    public List<String> remove(
+        Object key)
+    {
+        materialize();
+        return super.remove(key);
+    }
+
+    @Override
+    public void putAll(
+        Map<? extends String, ? extends List<String>> map)
+    {
+        materialize();
+        super.putAll(map);
+    }
+
+    @Override
+    public void clear()
+    {
+        materialize();
+        super.clear();
+    }
+
+    @Override
+    public Set<String> keySet()
+    {
+        materialize();
+        return super.keySet();
+    }
+
+    @Override
+    public Collection<List<String>> values()
+    {
+        materialize();
+        return super.values();
+    }
+
+    @Override
+    public Set<Map.Entry<String, List<String>>> entrySet()
+    {
+        materialize();
+        return super.entrySet();
+    }
+
+    @Override
+    public boolean equals(
+        Object other)
+    {
+        materialize();
+        return super.equals(other);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        materialize();
+        return super.hashCode();
+    }
+
+    private String findFirst(
+        String name)
+    {
+        this.name = name;
+        this.value = null;
+        beginExRO.headers().forEach(matchFirst);
+        return value;
+    }
+
+    private List<String> findAll(
+        String name)
+    {
+        this.name = name;
+        this.values = null;
+        beginExRO.headers().forEach(matchAll);
+        return values;
+    }
+
+    private void materialize()
+    {
+        if (!materialized)
+        {
+            materialized = true;
+            beginExRO.headers().forEach(addHeader);
+        }
+    }
+
+    private void matchFirst(
+        HttpHeaderFW header)
+    {
+        if (value == null && matches(header.name(), name))
+        {
+            value = header.value().asString();
+        }
+    }
+
+    private void matchAll(
+        HttpHeaderFW header)
+    {
+        if (matches(header.name(), name))
+        {
+            if (values == null)
+            {
+                values = new ArrayList<>(1);
+            }
+
+            values.add(header.value().asString());
+        }
+    }
+
+    private void addHeader(
+        HttpHeaderFW header)
+    {
+        final StringFW name = header.name();
+
+        if (!isPseudoHeader(name))
+        {
+            super.add(name.asString(), header.value().asString());
+        }
+    }
+
+    private static boolean isPseudoHeader(
+        String name)
+    {
+        return !name.isEmpty() && name.charAt(0) == ':';
+    }
+
+    private static boolean isPseudoHeader(
+        StringFW name)
+    {
+        return name.sizeof() > STRING_LENGTH_SIZE && name.buffer().getByte(name.offset() + STRING_LENGTH_SIZE) == ':';
+    }
+
+    private static boolean matches(
+        StringFW actual,
+        String expected)
+    {
+        final DirectBuffer buffer = actual.buffer();
+        final int offset = actual.offset() + STRING_LENGTH_SIZE;
+        final int length = actual.sizeof() - STRING_LENGTH_SIZE;
+
+        boolean matches = length == expected.length();
+
+        for (int i = 0; matches && i < length; i++)
+        {
+            matches = toLowerCase(buffer.getByte(offset + i)) == toLowerCase(expected.charAt(i));
+        }
+
+        return matches;
+    }
+
+    private static int toLowerCase(
+        int ch)
+    {
+        return ch >= 'A' && ch <= 'Z' ? ch + ('a' - 'A') : ch;
+    }
+}
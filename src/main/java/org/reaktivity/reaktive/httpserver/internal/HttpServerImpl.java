@@ -15,16 +15,15 @@
  */
 package org.reaktivity.reaktive.httpserver.internal;
 
-import static java.util.Collections.singletonMap;
-
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.util.Collections;
 import java.util.Map;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.agrona.CloseHelper;
 import org.reaktivity.nukleus.Configuration;
@@ -40,16 +39,19 @@ import com.sun.net.httpserver.HttpServer;
 @SuppressWarnings("restriction")
 public final class HttpServerImpl extends HttpServer
 {
-    private static final String PATH_PSEUDO_HEADER_NAME = ":path";
+    public static final String VIRTUAL_THREADS_PROPERTY_NAME = "httpserver.virtual.threads";
+
     private static final String HTTP_NUKLEUS_NAME = "http";
     private static final String TCP_NUKLEUS_NAME = "tcp";
     private static final String ANY_DEVICE_NAME = "any";
 
     private final Reaktor reaktor;
-    private final ConcurrentMap<Long, HttpContext> contextsByRef;
+    private final HttpContextTable contexts;
+    private final boolean virtualThreadsEnabled;
 
     private InetSocketAddress address;
-    private Executor executor;
+    private volatile Executor executor;
+    private volatile ExecutorService virtualThreads;
     private long httpSourceRef;
 
     HttpServerImpl(
@@ -62,7 +64,8 @@ public final class HttpServerImpl extends HttpServer
                 .errorHandler(ex -> ex.printStackTrace(System.err))
                 .build()
                 .start();
-        this.contextsByRef = new ConcurrentSkipListMap<>();
+        this.contexts = new HttpContextTable();
+        this.virtualThreadsEnabled = Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY_NAME);
     }
 
     @Override
@@ -80,7 +83,6 @@ public final class HttpServerImpl extends HttpServer
 
             HttpController http = reaktor.controller(HttpController.class);
             this.httpSourceRef = http.routeInputNew(TCP_NUKLEUS_NAME, 0L, HttpServerNukleus.NAME, httpTargetRef, headers).join();
-            http.unrouteInputNew(TCP_NUKLEUS_NAME, httpSourceRef, HttpServerNukleus.NAME, httpTargetRef, headers).join();
 
             TcpController tcp = reaktor.controller(TcpController.class);
             tcp.routeInputNew(ANY_DEVICE_NAME, port, HTTP_NUKLEUS_NAME, httpSourceRef, address).join();
@@ -149,8 +151,13 @@ public final class HttpServerImpl extends HttpServer
     @Override
     public void start()
     {
+        if (executor == null && virtualThreadsEnabled)
+        {
+            this.virtualThreads = newVirtualThreadPerTaskExecutor();
+        }
+
         HttpServerNukleus nukleus = reaktor.nukleus(HttpServerNukleus.NAME, HttpServerNukleus.class);
-        nukleus.resolver(contextsByRef::get);
+        nukleus.resolver(contexts);
     }
 
     @Override
@@ -158,6 +165,19 @@ public final class HttpServerImpl extends HttpServer
         int delay)
     {
         CloseHelper.close(reaktor);
+
+        if (virtualThreads != null)
+        {
+            virtualThreads.shutdownNow();
+            this.virtualThreads = null;
+        }
+    }
+
+    // the internal virtual thread executor is never exposed through getExecutor()
+    public Executor dispatchExecutor()
+    {
+        final Executor executor = this.executor;
+        return executor != null ? executor : virtualThreads;
     }
 
     private boolean matchNukleus(
@@ -181,38 +201,34 @@ public final class HttpServerImpl extends HttpServer
         return TcpController.class.equals(controller);
     }
 
-    private HttpContext createContext0(
-        String path)
+    private static ExecutorService newVirtualThreadPerTaskExecutor()
     {
-        HttpContext context = new HttpContextImpl(this, path);
-        long contextRef = System.identityHashCode(path.intern());
-
-        if (contextsByRef.putIfAbsent(contextRef, context) != null)
+        try
         {
-            throw new IllegalArgumentException("context already exists");
+            Method newExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) newExecutor.invoke(null);
         }
+        catch (ReflectiveOperationException ex)
+        {
+            throw new UnsupportedOperationException("virtual threads not supported", ex);
+        }
+    }
 
-        Map<String, String> headers = singletonMap(PATH_PSEUDO_HEADER_NAME, path);
-
-        HttpController http = reaktor.controller(HttpController.class);
-        http.routeInputNew(TCP_NUKLEUS_NAME, httpSourceRef, HttpServerNukleus.NAME, contextRef, headers).join();
-
-        return context;
+    private HttpContext createContext0(
+        String path)
+    {
+        return contexts.add(this, path);
     }
 
     private HttpContext removeContext0(
         String path)
     {
-        long sourceRef = System.identityHashCode(path.intern());
-        HttpContext context = contextsByRef.remove(sourceRef);
+        final HttpContextImpl context = contexts.remove(path);
 
         if (context != null)
         {
-            long targetRef = System.identityHashCode(context);
-            Map<String, String> headers = singletonMap(PATH_PSEUDO_HEADER_NAME, path);
-
-            HttpController http = reaktor.controller(HttpController.class);
-            http.unrouteInputNew(TCP_NUKLEUS_NAME, httpSourceRef, HttpServerNukleus.NAME, targetRef, headers).join();
+            HttpServerNukleus nukleus = reaktor.nukleus(HttpServerNukleus.NAME, HttpServerNukleus.class);
+            nukleus.removed(context);
         }
 
         return context;
@@ -16,30 +16,29 @@
 package org.reaktivity.reaktive.httpserver.internal;
 
 import java.io.Closeable;
-import java.util.function.LongFunction;
 
 import org.reaktivity.nukleus.Nukleus;
 import org.reaktivity.reaktive.httpserver.internal.router.Router;
 import org.reaktivity.reaktive.httpserver.internal.watcher.Watcher;
 
-import com.sun.net.httpserver.HttpContext;
-
-@SuppressWarnings("restriction")
 public final class HttpServerNukleus extends Nukleus.Composite
 {
     static final String NAME = "httpserver";
 
     private final Resolver resolver;
+    private final Counters counters;
     private final Closeable cleanup;
 
     HttpServerNukleus(
         Watcher watcher,
         Router router,
         Resolver resolver,
+        Counters counters,
         Closeable cleanup)
     {
         super(watcher, router);
         this.resolver = resolver;
+        this.counters = counters;
         this.cleanup = cleanup;
     }
 
@@ -56,9 +55,15 @@ public final class HttpServerNukleus extends Nukleus.Composite
         cleanup.close();
     }
 
-    public void resolver(
-        LongFunction<HttpContext> resolver)
+    void resolver(
+        HttpContextTable contexts)
+    {
+        this.resolver.delegate(contexts);
+    }
+
+    void removed(
+        HttpContextImpl context)
     {
-        this.resolver.delegate(resolver);
+        counters.releaseRouteCounters(context);
     }
 }
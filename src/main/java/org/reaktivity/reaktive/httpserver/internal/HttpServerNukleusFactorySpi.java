@@ -42,6 +42,6 @@ public final class HttpServerNukleusFactorySpi implements NukleusFactorySpi
         watcher.setRouter(router);
         router.setResolver(resolver);
 
-        return new HttpServerNukleus(watcher, router, resolver, context);
+        return new HttpServerNukleus(watcher, router, resolver, context.counters(), context);
     }
 }
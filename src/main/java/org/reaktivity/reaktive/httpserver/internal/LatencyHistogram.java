@@ -0,0 +1,69 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver.internal;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.agrona.CloseHelper.quietClose;
+
+import org.agrona.concurrent.status.AtomicCounter;
+import org.agrona.concurrent.status.CountersManager;
+
+public final class LatencyHistogram implements AutoCloseable
+{
+    private static final int BUCKET_COUNT = 24;
+
+    private final AtomicCounter[] buckets;
+
+    LatencyHistogram(
+        CountersManager countersManager,
+        String name)
+    {
+        this.buckets = new AtomicCounter[BUCKET_COUNT];
+
+        try
+        {
+            for (int i = 0; i < BUCKET_COUNT - 1; i++)
+            {
+                buckets[i] = countersManager.newCounter(String.format("%s.lt.%dus", name, 1L << i));
+            }
+
+            buckets[BUCKET_COUNT - 1] = countersManager.newCounter(String.format("%s.ge.%dus", name, 1L << (BUCKET_COUNT - 2)));
+        }
+        catch (IllegalArgumentException | IllegalStateException ex)
+        {
+            close();
+            throw ex;
+        }
+    }
+
+    public void record(
+        long nanos)
+    {
+        final long micros = NANOSECONDS.toMicros(nanos);
+        final int bucket = Math.min(Long.SIZE - Long.numberOfLeadingZeros(micros), BUCKET_COUNT - 1);
+
+        buckets[bucket].increment();
+    }
+
+    @Override
+    public void close()
+    {
+        for (AtomicCounter bucket : buckets)
+        {
+            quietClose(bucket);
+        }
+    }
+}
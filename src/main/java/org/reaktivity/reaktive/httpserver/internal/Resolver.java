@@ -15,29 +15,33 @@
  */
 package org.reaktivity.reaktive.httpserver.internal;
 
-import java.util.function.LongFunction;
+import org.agrona.DirectBuffer;
 
 import com.sun.net.httpserver.HttpContext;
 
 @SuppressWarnings("restriction")
 public final class Resolver
 {
-    private LongFunction<HttpContext> resolver;
+    private volatile HttpContextTable contexts;
 
     void delegate(
-        LongFunction<HttpContext> resolver)
+        HttpContextTable contexts)
     {
-        this.resolver = resolver;
+        this.contexts = contexts;
     }
 
     public HttpContext resolve(
-        long sourceRef)
+        DirectBuffer path,
+        int offset,
+        int length)
     {
+        final HttpContextTable contexts = this.contexts;
+
         HttpContext context = null;
 
-        if (resolver != null)
+        if (contexts != null)
         {
-            context = resolver.apply(sourceRef);
+            context = contexts.resolve(path, offset, length);
         }
 
         return context;
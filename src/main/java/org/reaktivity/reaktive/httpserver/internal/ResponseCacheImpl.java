@@ -0,0 +1,395 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver.internal;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.nio.ByteBuffer;
+
+import org.agrona.DirectBuffer;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+public final class ResponseCacheImpl
+{
+    private static final int FREE = 0;
+    private static final int RECORDING = 1;
+    private static final int LIVE = 2;
+    private static final int RETIRED = 3;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final AtomicBuffer arena;
+    private final int slotLength;
+    private final long ttl;
+    private final byte[][] varyHeaders;
+    private final Slot[] slots;
+    private final int[] freeSlots;
+    private final Long2ObjectHashMap<Slot> index;
+
+    private int freeCount;
+    private Slot head;
+    private Slot tail;
+
+    public ResponseCacheImpl(
+        int capacity,
+        int slotLength,
+        long ttl,
+        String[] varyHeaders)
+    {
+        final int slotCount = capacity / slotLength;
+
+        if (slotCount <= 0)
+        {
+            throw new IllegalArgumentException("capacity smaller than maximum entry length");
+        }
+
+        this.arena = new UnsafeBuffer(ByteBuffer.allocateDirect(slotCount * slotLength));
+        this.slotLength = slotLength;
+        this.ttl = ttl;
+        this.varyHeaders = new byte[varyHeaders.length][];
+        this.slots = new Slot[slotCount];
+        this.freeSlots = new int[slotCount];
+        this.index = new Long2ObjectHashMap<>();
+
+        for (int i = 0; i < varyHeaders.length; i++)
+        {
+            this.varyHeaders[i] = varyHeaders[i].toLowerCase().getBytes(US_ASCII);
+        }
+
+        for (int i = 0; i < slotCount; i++)
+        {
+            slots[i] = new Slot(i, i * slotLength);
+            freeSlots[freeCount++] = slotCount - 1 - i;
+        }
+    }
+
+    public byte[][] varyHeaders()
+    {
+        return varyHeaders;
+    }
+
+    public boolean varies(
+        String header)
+    {
+        for (byte[] varyHeader : varyHeaders)
+        {
+            boolean matches = header.length() == varyHeader.length;
+
+            for (int i = 0; matches && i < varyHeader.length; i++)
+            {
+                matches = Character.toLowerCase(header.charAt(i)) == varyHeader[i];
+            }
+
+            if (matches)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public DirectBuffer buffer()
+    {
+        return arena;
+    }
+
+    public synchronized Slot acquire(
+        DirectBuffer key,
+        int keyLength,
+        long now)
+    {
+        final Slot slot = index.get(hash(key, 0, keyLength));
+
+        if (slot == null || !slot.matches(key, keyLength))
+        {
+            return null;
+        }
+
+        if (now >= slot.expiresAt)
+        {
+            retire(slot);
+            return null;
+        }
+
+        unlink(slot);
+        linkHead(slot);
+        slot.references++;
+
+        return slot;
+    }
+
+    public synchronized Slot reserve(
+        DirectBuffer key,
+        int keyLength,
+        int status,
+        DirectBuffer extension,
+        int extensionOffset,
+        int extensionLength)
+    {
+        if (keyLength + extensionLength > slotLength)
+        {
+            return null;
+        }
+
+        final Slot slot = allocate();
+
+        if (slot != null)
+        {
+            slot.state = RECORDING;
+            slot.hash = hash(key, 0, keyLength);
+            slot.status = status;
+            slot.keyLength = keyLength;
+            slot.extensionLength = extensionLength;
+            slot.bodyLength = 0;
+
+            arena.putBytes(slot.offset, key, 0, keyLength);
+            arena.putBytes(slot.offset + keyLength, extension, extensionOffset, extensionLength);
+        }
+
+        return slot;
+    }
+
+    public boolean append(
+        Slot slot,
+        DirectBuffer buffer,
+        int offset,
+        int length)
+    {
+        final int used = slot.keyLength + slot.extensionLength + slot.bodyLength;
+
+        if (used + length > slotLength)
+        {
+            return false;
+        }
+
+        arena.putBytes(slot.offset + used, buffer, offset, length);
+        slot.bodyLength += length;
+
+        return true;
+    }
+
+    public synchronized void commit(
+        Slot slot,
+        long now)
+    {
+        final Slot existing = index.get(slot.hash);
+
+        if (existing != null)
+        {
+            retire(existing);
+        }
+
+        slot.state = LIVE;
+        slot.expiresAt = now + ttl;
+        index.put(slot.hash, slot);
+        linkHead(slot);
+    }
+
+    public synchronized void abandon(
+        Slot slot)
+    {
+        free(slot);
+    }
+
+    private synchronized void release(
+        Slot slot)
+    {
+        slot.references--;
+
+        if (slot.references == 0 && slot.state == RETIRED)
+        {
+            free(slot);
+        }
+    }
+
+    private Slot allocate()
+    {
+        if (freeCount > 0)
+        {
+            return slots[freeSlots[--freeCount]];
+        }
+
+        for (Slot candidate = tail; candidate != null; candidate = candidate.prev)
+        {
+            if (candidate.references == 0)
+            {
+                index.remove(candidate.hash);
+                unlink(candidate);
+                return candidate;
+            }
+        }
+
+        return null;
+    }
+
+    private void retire(
+        Slot slot)
+    {
+        index.remove(slot.hash);
+        unlink(slot);
+
+        if (slot.references == 0)
+        {
+            free(slot);
+        }
+        else
+        {
+            slot.state = RETIRED;
+        }
+    }
+
+    private void free(
+        Slot slot)
+    {
+        slot.state = FREE;
+        freeSlots[freeCount++] = slot.index;
+    }
+
+    private void linkHead(
+        Slot slot)
+    {
+        slot.prev = null;
+        slot.next = head;
+
+        if (head != null)
+        {
+            head.prev = slot;
+        }
+
+        head = slot;
+
+        if (tail == null)
+        {
+            tail = slot;
+        }
+    }
+
+    private void unlink(
+        Slot slot)
+    {
+        if (slot.prev != null)
+        {
+            slot.prev.next = slot.next;
+        }
+        else if (head == slot)
+        {
+            head = slot.next;
+        }
+
+        if (slot.next != null)
+        {
+            slot.next.prev = slot.prev;
+        }
+        else if (tail == slot)
+        {
+            tail = slot.prev;
+        }
+
+        slot.prev = null;
+        slot.next = null;
+    }
+
+    private static long hash(
+        DirectBuffer buffer,
+        int offset,
+        int length)
+    {
+        long hash = FNV_OFFSET_BASIS;
+
+        for (int i = 0; i < length; i++)
+        {
+            hash ^= buffer.getByte(offset + i) & 0xff;
+            hash *= FNV_PRIME;
+        }
+
+        return hash;
+    }
+
+    public final class Slot
+    {
+        private final int index;
+        private final int offset;
+        private final Runnable release;
+
+        private int state;
+        private long hash;
+        private int status;
+        private int keyLength;
+        private int extensionLength;
+        private int bodyLength;
+        private long expiresAt;
+        private int references;
+        private Slot prev;
+        private Slot next;
+
+        private Slot(
+            int index,
+            int offset)
+        {
+            this.index = index;
+            this.offset = offset;
+            this.release = () -> ResponseCacheImpl.this.release(this);
+        }
+
+        public int status()
+        {
+            return status;
+        }
+
+        public int extensionOffset()
+        {
+            return offset + keyLength;
+        }
+
+        public int extensionLength()
+        {
+            return extensionLength;
+        }
+
+        public int bodyOffset()
+        {
+            return offset + keyLength + extensionLength;
+        }
+
+        public int bodyLength()
+        {
+            return bodyLength;
+        }
+
+        public Runnable release()
+        {
+            return release;
+        }
+
+        private boolean matches(
+            DirectBuffer key,
+            int keyLength)
+        {
+            boolean matches = state == LIVE && this.keyLength == keyLength;
+
+            for (int i = 0; matches && i < keyLength; i++)
+            {
+                matches = arena.getByte(offset + i) == key.getByte(i);
+            }
+
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.agrona.CloseHelper.quietClose;
+
+import org.agrona.concurrent.status.AtomicCounter;
+import org.agrona.concurrent.status.CountersManager;
+
+public final class RouteCounters implements AutoCloseable
+{
+    private static final int STATUS_CLASS_COUNT = 6;
+    private static final int MAX_LABEL_LENGTH = 124;
+    private static final int MAX_SUFFIX_LENGTH = ".latency.ge.4194304us".length();
+
+    private final AtomicCounter requests;
+    private final AtomicCounter resets;
+    private final AtomicCounter bytesIn;
+    private final AtomicCounter bytesOut;
+    private final AtomicCounter[] responsesByStatusClass;
+    private final LatencyHistogram latency;
+
+    RouteCounters(
+        CountersManager countersManager,
+        String path,
+        boolean latency)
+    {
+        final String name = name(path);
+
+        this.responsesByStatusClass = new AtomicCounter[STATUS_CLASS_COUNT];
+
+        AtomicCounter requests = null;
+        AtomicCounter resets = null;
+        AtomicCounter bytesIn = null;
+        AtomicCounter bytesOut = null;
+
+        try
+        {
+            requests = countersManager.newCounter(name + ".requests");
+            resets = countersManager.newCounter(name + ".resets");
+            bytesIn = countersManager.newCounter(name + ".bytesIn");
+            bytesOut = countersManager.newCounter(name + ".bytesOut");
+
+            for (int i = 1; i < STATUS_CLASS_COUNT; i++)
+            {
+                responsesByStatusClass[i] = countersManager.newCounter(String.format("%s.responses.%dxx", name, i));
+            }
+        }
+        catch (IllegalArgumentException | IllegalStateException ex)
+        {
+            quietClose(requests);
+            quietClose(resets);
+            quietClose(bytesIn);
+            quietClose(bytesOut);
+
+            for (int i = 1; i < STATUS_CLASS_COUNT; i++)
+            {
+                quietClose(responsesByStatusClass[i]);
+            }
+
+            throw ex;
+        }
+
+        this.requests = requests;
+        this.resets = resets;
+        this.bytesIn = bytesIn;
+        this.bytesOut = bytesOut;
+        this.latency = latency ? newLatencyHistogram(countersManager, name + ".latency") : null;
+    }
+
+    public AtomicCounter requests()
+    {
+        return requests;
+    }
+
+    public AtomicCounter resets()
+    {
+        return resets;
+    }
+
+    public AtomicCounter bytesIn()
+    {
+        return bytesIn;
+    }
+
+    public AtomicCounter bytesOut()
+    {
+        return bytesOut;
+    }
+
+    public void onResponse(
+        int status,
+        long nanos)
+    {
+        if (latency != null)
+        {
+            latency.record(nanos);
+        }
+
+        final int statusClass = status / 100;
+
+        if (statusClass > 0 && statusClass < STATUS_CLASS_COUNT)
+        {
+            responsesByStatusClass[statusClass].increment();
+        }
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        requests.close();
+        resets.close();
+        bytesIn.close();
+        bytesOut.close();
+
+        for (int i = 1; i < STATUS_CLASS_COUNT; i++)
+        {
+            responsesByStatusClass[i].close();
+        }
+
+        quietClose(latency);
+    }
+
+    // counter labels are limited to 124 bytes, so long paths are truncated and disambiguated by hash
+    static String name(
+        String path)
+    {
+        final String name = String.format("route[%s]", path);
+
+        if (name.getBytes(UTF_8).length + MAX_SUFFIX_LENGTH <= MAX_LABEL_LENGTH)
+        {
+            return name;
+        }
+
+        final String hash = String.format("#%08x", path.hashCode());
+        final int limit = MAX_LABEL_LENGTH - MAX_SUFFIX_LENGTH - "route[]".length() - hash.length();
+        final StringBuilder prefix = new StringBuilder();
+
+        int length = 0;
+        for (int i = 0; i < path.length(); )
+        {
+            final int codePoint = path.codePointAt(i);
+            final String character = new String(Character.toChars(codePoint));
+            length += character.getBytes(UTF_8).length;
+
+            if (length > limit)
+            {
+                break;
+            }
+
+            prefix.append(character);
+            i += Character.charCount(codePoint);
+        }
+
+        return String.format("route[%s%s]", prefix, hash);
+    }
+
+    private static LatencyHistogram newLatencyHistogram(
+        CountersManager countersManager,
+        String name)
+    {
+        try
+        {
+            return new LatencyHistogram(countersManager, name);
+        }
+        catch (IllegalArgumentException | IllegalStateException ex)
+        {
+            // route metrics remain available without the histogram
+            return null;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver.internal.layouts;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+import static org.agrona.BitUtil.align;
+import static org.agrona.IoUtil.createEmptyFile;
+import static org.agrona.IoUtil.mapExistingFile;
+import static org.agrona.IoUtil.unmap;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+public final class CaptureLayout extends Layout
+{
+    public static final int DIRECTION_SOURCE = 0;
+    public static final int DIRECTION_TARGET = 1;
+
+    private static final int TAIL_OFFSET = 0;
+    private static final int HEADER_LENGTH = 64;
+
+    private static final int LENGTH_OFFSET = 0;
+    private static final int TYPE_ID_OFFSET = LENGTH_OFFSET + SIZE_OF_INT;
+    private static final int TIMESTAMP_OFFSET = TYPE_ID_OFFSET + SIZE_OF_INT;
+    private static final int DIRECTION_OFFSET = TIMESTAMP_OFFSET + SIZE_OF_LONG;
+    private static final int RECORD_HEADER_LENGTH = align(DIRECTION_OFFSET + SIZE_OF_INT, SIZE_OF_LONG);
+
+    private final AtomicBuffer buffer;
+
+    private CaptureLayout(
+        AtomicBuffer buffer)
+    {
+        this.buffer = buffer;
+    }
+
+    public void capture(
+        int direction,
+        int msgTypeId,
+        DirectBuffer frame,
+        int index,
+        int length)
+    {
+        final int recordLength = align(RECORD_HEADER_LENGTH + length, SIZE_OF_LONG);
+        final long position = HEADER_LENGTH + buffer.getAndAddLong(TAIL_OFFSET, recordLength);
+
+        if (position + recordLength <= buffer.capacity())
+        {
+            final int offset = (int) position;
+
+            buffer.putInt(offset + TYPE_ID_OFFSET, msgTypeId);
+            buffer.putLong(offset + TIMESTAMP_OFFSET, System.nanoTime());
+            buffer.putInt(offset + DIRECTION_OFFSET, direction);
+            buffer.putBytes(offset + RECORD_HEADER_LENGTH, frame, index, length);
+            buffer.putIntOrdered(offset + LENGTH_OFFSET, length);
+        }
+    }
+
+    public int read(
+        FrameHandler handler)
+    {
+        final long limit = Math.min(HEADER_LENGTH + buffer.getLongVolatile(TAIL_OFFSET), buffer.capacity());
+
+        int count = 0;
+        int offset = HEADER_LENGTH;
+
+        while (offset + RECORD_HEADER_LENGTH <= limit)
+        {
+            final int length = buffer.getIntVolatile(offset + LENGTH_OFFSET);
+
+            if (length == 0)
+            {
+                break;
+            }
+
+            handler.onFrame(buffer.getInt(offset + DIRECTION_OFFSET),
+                            buffer.getLong(offset + TIMESTAMP_OFFSET),
+                            buffer.getInt(offset + TYPE_ID_OFFSET),
+                            buffer, offset + RECORD_HEADER_LENGTH, length);
+
+            offset += align(RECORD_HEADER_LENGTH + length, SIZE_OF_LONG);
+            count++;
+        }
+
+        return count;
+    }
+
+    @Override
+    public void close()
+    {
+        unmap(buffer.byteBuffer());
+    }
+
+    @FunctionalInterface
+    public interface FrameHandler
+    {
+        void onFrame(
+            int direction,
+            long timestamp,
+            int msgTypeId,
+            DirectBuffer buffer,
+            int index,
+            int length);
+    }
+
+    public static final class Builder extends Layout.Builder<CaptureLayout>
+    {
+        private long capacity;
+        private Path path;
+        private boolean readonly;
+
+        public Builder capacity(
+            long capacity)
+        {
+            this.capacity = capacity;
+            return this;
+        }
+
+        public Builder path(
+            Path path)
+        {
+            this.path = path;
+            return this;
+        }
+
+        public Builder readonly(
+            boolean readonly)
+        {
+            this.readonly = readonly;
+            return this;
+        }
+
+        @Override
+        public CaptureLayout build()
+        {
+            final File capture = path.toFile();
+
+            if (!readonly)
+            {
+                createEmptyFile(capture, HEADER_LENGTH + capacity);
+            }
+
+            final long size = readonly ? capture.length() : HEADER_LENGTH + capacity;
+
+            return new CaptureLayout(new UnsafeBuffer(mapExistingFile(capture, "capture", 0, size)));
+        }
+    }
+}
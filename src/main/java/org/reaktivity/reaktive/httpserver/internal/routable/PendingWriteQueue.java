@@ -0,0 +1,139 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver.internal.routable;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.align;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.reaktivity.reaktive.httpserver.internal.layouts.CaptureLayout;
+
+final class PendingWriteQueue
+{
+    private static final int TYPE_ID_OFFSET = 0;
+    private static final int LENGTH_OFFSET = TYPE_ID_OFFSET + SIZE_OF_INT;
+    private static final int HEADER_LENGTH = LENGTH_OFFSET + SIZE_OF_INT;
+    private static final int ALIGNMENT = HEADER_LENGTH;
+
+    private final RingBuffer ringBuffer;
+    private final byte[] pending;
+    private final UnsafeBuffer pendingBuffer;
+    private final AtomicCounter writesDeferred;
+    private final AtomicCounter writesDropped;
+    private final CaptureLayout capture;
+    private final int direction;
+
+    private int head;
+    private int tail;
+
+    PendingWriteQueue(
+        RingBuffer ringBuffer,
+        int capacity,
+        AtomicCounter writesDeferred,
+        AtomicCounter writesDropped,
+        CaptureLayout capture,
+        int direction)
+    {
+        this.ringBuffer = ringBuffer;
+        this.pending = new byte[capacity];
+        this.pendingBuffer = new UnsafeBuffer(pending);
+        this.writesDeferred = writesDeferred;
+        this.writesDropped = writesDropped;
+        this.capture = capture;
+        this.direction = direction;
+    }
+
+    boolean isEmpty()
+    {
+        return head == tail;
+    }
+
+    boolean write(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        if (capture != null)
+        {
+            capture.capture(direction, msgTypeId, buffer, index, length);
+        }
+
+        if (isEmpty() && ringBuffer.write(msgTypeId, buffer, index, length))
+        {
+            return true;
+        }
+
+        final int recordLength = align(HEADER_LENGTH + length, ALIGNMENT);
+
+        if (tail + recordLength > pending.length)
+        {
+            compact();
+        }
+
+        if (tail + recordLength > pending.length)
+        {
+            writesDropped.increment();
+            return false;
+        }
+
+        pendingBuffer.putInt(tail + TYPE_ID_OFFSET, msgTypeId);
+        pendingBuffer.putInt(tail + LENGTH_OFFSET, length);
+        pendingBuffer.putBytes(tail + HEADER_LENGTH, buffer, index, length);
+        tail += recordLength;
+
+        writesDeferred.increment();
+
+        return true;
+    }
+
+    int flush()
+    {
+        int workCount = 0;
+
+        while (head < tail)
+        {
+            final int msgTypeId = pendingBuffer.getInt(head + TYPE_ID_OFFSET);
+            final int length = pendingBuffer.getInt(head + LENGTH_OFFSET);
+
+            if (!ringBuffer.write(msgTypeId, pendingBuffer, head + HEADER_LENGTH, length))
+            {
+                break;
+            }
+
+            head += align(HEADER_LENGTH + length, ALIGNMENT);
+            workCount++;
+        }
+
+        if (isEmpty())
+        {
+            head = 0;
+            tail = 0;
+        }
+
+        return workCount;
+    }
+
+    private void compact()
+    {
+        System.arraycopy(pending, head, pending, 0, tail - head);
+        tail -= head;
+        head = 0;
+    }
+}
@@ -17,38 +17,50 @@ package org.reaktivity.reaktive.httpserver.internal.routable;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.LongFunction;
 import java.util.function.LongSupplier;
 
+import org.agrona.CloseHelper;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.reaktivity.nukleus.Nukleus;
 import org.reaktivity.nukleus.Reaktive;
 import org.reaktivity.reaktive.httpserver.internal.Context;
+import org.reaktivity.reaktive.httpserver.internal.Resolver;
 import org.reaktivity.reaktive.httpserver.internal.layouts.StreamsLayout;
 
-import com.sun.net.httpserver.HttpContext;
-
 @Reaktive
-@SuppressWarnings("restriction")
 public final class Routable extends Nukleus.Composite
 {
     private final Context context;
     private final String sourceName;
+    private final String name;
     private final AtomicBuffer writeBuffer;
     private final Map<String, Source> sourcesByPartitionName;
     private final Map<String, Target> targetsByName;
     private final LongSupplier supplyTargetId;
-    private final LongFunction<HttpContext> supplyContext;
+    private final Resolver resolver;
+    private final SharedTarget.Registry sharedTargets;
 
     public Routable(
         Context context,
         String sourceName,
-        LongFunction<HttpContext> supplyContext)
+        Resolver resolver)
+    {
+        this(context, sourceName, sourceName, resolver, null);
+    }
+
+    public Routable(
+        Context context,
+        String sourceName,
+        String name,
+        Resolver resolver,
+        SharedTarget.Registry sharedTargets)
     {
         this.context = context;
         this.sourceName = sourceName;
-        this.supplyContext = supplyContext;
+        this.name = name;
+        this.resolver = resolver;
+        this.sharedTargets = sharedTargets;
         this.writeBuffer = new UnsafeBuffer(new byte[context.maxMessageLength()]);
         this.sourcesByPartitionName = new HashMap<>();
         this.targetsByName = new HashMap<>();
@@ -58,7 +70,7 @@ public final class Routable extends Nukleus.Composite
     @Override
     public String name()
     {
-        return sourceName;
+        return name;
     }
 
     public void onReadable(
@@ -67,6 +79,28 @@ public final class Routable extends Nukleus.Composite
         sourcesByPartitionName.computeIfAbsent(partitionName, this::newSource);
     }
 
+    public void onExpired(
+        String partitionName)
+    {
+        final Source source = sourcesByPartitionName.remove(partitionName);
+
+        if (source != null)
+        {
+            CloseHelper.quietClose(exclude(source));
+        }
+
+        if (sourcesByPartitionName.isEmpty())
+        {
+            targetsByName.values().forEach(target -> CloseHelper.quietClose(exclude(target)));
+            targetsByName.clear();
+        }
+    }
+
+    public boolean isEmpty()
+    {
+        return sourcesByPartitionName.isEmpty();
+    }
+
     private Source newSource(
         String partitionName)
     {
@@ -77,8 +111,8 @@ public final class Routable extends Nukleus.Composite
             .readonly(true)
             .build();
 
-        return include(new Source(sourceName, partitionName, layout, writeBuffer,
-                                  supplyContext, supplyTargetId, this::supplyTarget));
+        return include(new Source(context, sourceName, partitionName, layout, writeBuffer,
+                                  resolver, supplyTargetId, this::supplyTarget));
     }
 
     private Target supplyTarget(
@@ -90,6 +124,11 @@ public final class Routable extends Nukleus.Composite
     private Target newTarget(
         String targetName)
     {
+        if (sharedTargets != null)
+        {
+            return include(new Target(context, targetName, sharedTargets.acquire(sourceName, targetName), writeBuffer));
+        }
+
         StreamsLayout layout = new StreamsLayout.Builder()
                 .path(context.targetStreamsPath().apply(sourceName, targetName))
                 .streamsCapacity(context.streamsBufferCapacity())
@@ -97,6 +136,6 @@ public final class Routable extends Nukleus.Composite
                 .readonly(false)
                 .build();
 
-        return include(new Target(targetName, layout, writeBuffer));
+        return include(new Target(context, targetName, layout, writeBuffer));
     }
 }
@@ -0,0 +1,158 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver.internal.routable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.reaktivity.reaktive.httpserver.internal.Context;
+import org.reaktivity.reaktive.httpserver.internal.layouts.StreamsLayout;
+import org.reaktivity.reaktive.httpserver.internal.types.stream.FrameFW;
+
+// target streams file written by the partitions of a source running on different workers
+public final class SharedTarget
+{
+    private final FrameFW frameRO = new FrameFW();
+
+    private final StreamsLayout layout;
+    private final RingBuffer streamsBuffer;
+    private final RingBuffer throttleBuffer;
+    private final Long2ObjectHashMap<PendingWriteQueue> inboxesByStreamId;
+    private final MessageHandler handleRead;
+
+    private int references;
+    private boolean closed;
+
+    private SharedTarget(
+        StreamsLayout layout)
+    {
+        this.layout = layout;
+        this.streamsBuffer = new ManyToOneRingBuffer(layout.streamsBuffer().buffer());
+        this.throttleBuffer = layout.throttleBuffer();
+        this.inboxesByStreamId = new Long2ObjectHashMap<>();
+        this.handleRead = this::handleRead;
+    }
+
+    RingBuffer streamsBuffer()
+    {
+        return streamsBuffer;
+    }
+
+    synchronized void addThrottle(
+        long streamId,
+        PendingWriteQueue inbox)
+    {
+        inboxesByStreamId.put(streamId, inbox);
+    }
+
+    synchronized void removeThrottle(
+        long streamId)
+    {
+        inboxesByStreamId.remove(streamId);
+    }
+
+    // moves throttle frames to the inbox of the worker that owns each stream
+    synchronized int read(
+        PendingWriteQueue inbox)
+    {
+        int workCount = 0;
+
+        workCount += inbox.flush();
+        workCount += throttleBuffer.read(handleRead);
+
+        return workCount;
+    }
+
+    synchronized void release()
+    {
+        if (--references == 0)
+        {
+            closed = true;
+            inboxesByStreamId.clear();
+            layout.close();
+        }
+    }
+
+    private synchronized boolean acquire()
+    {
+        if (!closed)
+        {
+            references++;
+        }
+
+        return !closed;
+    }
+
+    private void handleRead(
+        int msgTypeId,
+        MutableDirectBuffer buffer,
+        int index,
+        int length)
+    {
+        frameRO.wrap(buffer, index, index + length);
+
+        final long streamId = frameRO.streamId();
+        final PendingWriteQueue inbox = inboxesByStreamId.get(streamId);
+
+        if (inbox != null)
+        {
+            inbox.write(msgTypeId, buffer, index, length);
+        }
+    }
+
+    public static final class Registry
+    {
+        private final Context context;
+        private final Map<String, SharedTarget> targetsByPath;
+
+        public Registry(
+            Context context)
+        {
+            this.context = context;
+            this.targetsByPath = new HashMap<>();
+        }
+
+        synchronized SharedTarget acquire(
+            String sourceName,
+            String targetName)
+        {
+            final String path = context.targetStreamsPath().apply(sourceName, targetName).toString();
+
+            SharedTarget target = targetsByPath.get(path);
+
+            if (target == null || !target.acquire())
+            {
+                StreamsLayout layout = new StreamsLayout.Builder()
+                        .path(context.targetStreamsPath().apply(sourceName, targetName))
+                        .streamsCapacity(context.streamsBufferCapacity())
+                        .throttleCapacity(context.throttleBufferCapacity())
+                        .readonly(false)
+                        .build();
+
+                target = new SharedTarget(layout);
+                target.acquire();
+                targetsByPath.put(path, target);
+            }
+
+            return target;
+        }
+    }
+}
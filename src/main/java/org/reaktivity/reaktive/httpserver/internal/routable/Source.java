@@ -17,16 +17,19 @@ package org.reaktivity.reaktive.httpserver.internal.routable;
 
 
 import java.util.function.Function;
-import java.util.function.LongFunction;
 import java.util.function.LongSupplier;
-import java.util.function.Supplier;
 
 import org.agrona.MutableDirectBuffer;
 import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.MessageHandler;
 import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
 import org.reaktivity.nukleus.Nukleus;
+import org.reaktivity.reaktive.httpserver.internal.Context;
+import org.reaktivity.reaktive.httpserver.internal.Counters;
+import org.reaktivity.reaktive.httpserver.internal.Resolver;
+import org.reaktivity.reaktive.httpserver.internal.layouts.CaptureLayout;
 import org.reaktivity.reaktive.httpserver.internal.layouts.StreamsLayout;
 import org.reaktivity.reaktive.httpserver.internal.routable.stream.SourceInputStreamFactory;
 import org.reaktivity.reaktive.httpserver.internal.types.stream.BeginFW;
@@ -34,9 +37,6 @@ import org.reaktivity.reaktive.httpserver.internal.types.stream.FrameFW;
 import org.reaktivity.reaktive.httpserver.internal.types.stream.ResetFW;
 import org.reaktivity.reaktive.httpserver.internal.types.stream.WindowFW;
 
-import com.sun.net.httpserver.HttpContext;
-
-@SuppressWarnings("restriction")
 public final class Source implements Nukleus
 {
     private final FrameFW frameRO = new FrameFW();
@@ -50,16 +50,19 @@ public final class Source implements Nukleus
     private final StreamsLayout layout;
     private final AtomicBuffer writeBuffer;
     private final RingBuffer streamsBuffer;
-    private final RingBuffer throttleBuffer;
-    private final Supplier<MessageHandler> streamFactory;
+    private final PendingWriteQueue throttleQueue;
+    private final SourceInputStreamFactory streamFactory;
     private final Long2ObjectHashMap<MessageHandler> streams;
+    private final AtomicCounter streamsActive;
+    private final CaptureLayout capture;
 
     Source(
+        Context context,
         String sourceName,
         String partitionName,
         StreamsLayout layout,
         AtomicBuffer writeBuffer,
-        LongFunction<HttpContext> resolver,
+        Resolver resolver,
         LongSupplier supplyTargetId,
         Function<String, Target> supplyTarget)
     {
@@ -68,23 +71,38 @@ public final class Source implements Nukleus
         this.layout = layout;
         this.writeBuffer = writeBuffer;
 
+        final Counters counters = context.counters();
+
         this.streamsBuffer = layout.streamsBuffer();
-        this.throttleBuffer = layout.throttleBuffer();
+        this.throttleQueue = new PendingWriteQueue(layout.throttleBuffer(), context.throttleBufferCapacity(),
+                                                   counters.writesDeferred(), counters.writesDropped(),
+                                                   null, CaptureLayout.DIRECTION_SOURCE);
         this.streams = new Long2ObjectHashMap<>();
+        this.streamsActive = counters.streamsActive();
+        this.capture = context.capture();
 
         Target target = supplyTarget.apply(sourceName);
-        this.streamFactory = new SourceInputStreamFactory(this, target, resolver, supplyTargetId)::newStream;
+        this.streamFactory = new SourceInputStreamFactory(context, this, target, resolver, supplyTargetId);
     }
 
     @Override
     public int process()
     {
-        return streamsBuffer.read(this::handleRead);
+        int workCount = 0;
+
+        workCount += throttleQueue.flush();
+        workCount += streamFactory.flush();
+        workCount += streamsBuffer.read(this::handleRead);
+
+        return workCount;
     }
 
     @Override
     public void close() throws Exception
     {
+        streamFactory.close();
+        streamsActive.add(-streams.size());
+        streams.clear();
         layout.close();
     }
 
@@ -111,6 +129,11 @@ public final class Source implements Nukleus
         int index,
         int length)
     {
+        if (capture != null)
+        {
+            capture.capture(CaptureLayout.DIRECTION_SOURCE, msgTypeId, buffer, index, length);
+        }
+
         frameRO.wrap(buffer, index, index + length);
 
         final long streamId = frameRO.streamId();
@@ -157,8 +180,9 @@ public final class Source implements Nukleus
         beginRO.wrap(buffer, index, index + length);
         final long sourceId = beginRO.streamId();
 
-        final MessageHandler newStream = streamFactory.get();
+        final MessageHandler newStream = streamFactory.newStream();
         streams.put(sourceId, newStream);
+        streamsActive.increment();
         newStream.onMessage(msgTypeId, buffer, index, length);
     }
 
@@ -169,7 +193,7 @@ public final class Source implements Nukleus
         final WindowFW window = windowRW.wrap(writeBuffer, 0, writeBuffer.capacity())
                 .streamId(streamId).update(update).build();
 
-        throttleBuffer.write(window.typeId(), window.buffer(), window.offset(), window.sizeof());
+        throttleQueue.write(window.typeId(), window.buffer(), window.offset(), window.sizeof());
     }
 
     public void doReset(
@@ -178,12 +202,15 @@ public final class Source implements Nukleus
         final ResetFW reset = resetRW.wrap(writeBuffer, 0, writeBuffer.capacity())
                 .streamId(streamId).build();
 
-        throttleBuffer.write(reset.typeId(), reset.buffer(), reset.offset(), reset.sizeof());
+        throttleQueue.write(reset.typeId(), reset.buffer(), reset.offset(), reset.sizeof());
     }
 
     public void removeStream(
         long streamId)
     {
-        streams.remove(streamId);
+        if (streams.remove(streamId) != null)
+        {
+            streamsActive.add(-1L);
+        }
     }
 }
@@ -15,6 +15,7 @@
  */
 package org.reaktivity.reaktive.httpserver.internal.routable;
 
+import java.nio.ByteBuffer;
 import java.util.function.Consumer;
 
 import org.agrona.DirectBuffer;
@@ -22,8 +23,15 @@ import org.agrona.MutableDirectBuffer;
 import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.OneToOneRingBuffer;
 import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+import org.agrona.concurrent.status.AtomicCounter;
 import org.reaktivity.nukleus.Nukleus;
+import org.reaktivity.reaktive.httpserver.internal.Context;
+import org.reaktivity.reaktive.httpserver.internal.Counters;
+import org.reaktivity.reaktive.httpserver.internal.layouts.CaptureLayout;
 import org.reaktivity.reaktive.httpserver.internal.layouts.StreamsLayout;
 import org.reaktivity.reaktive.httpserver.internal.types.Flyweight;
 import org.reaktivity.reaktive.httpserver.internal.types.HttpHeaderFW;
@@ -47,35 +55,101 @@ public final class Target implements Nukleus
 
     private final String name;
     private final StreamsLayout layout;
+    private final SharedTarget shared;
     private final AtomicBuffer writeBuffer;
 
-    private final RingBuffer streamsBuffer;
+    private final PendingWriteQueue streamsQueue;
     private final RingBuffer throttleBuffer;
+    private final PendingWriteQueue throttleInbox;
     private final Long2ObjectHashMap<MessageHandler> throttles;
+    private final AtomicCounter throttlesActive;
+
+    private final int sizeofData;
 
     public Target(
+        Context context,
+        String name,
+        StreamsLayout layout,
+        AtomicBuffer writeBuffer)
+    {
+        this(context, name, layout, null, layout.streamsBuffer(), layout.throttleBuffer(), writeBuffer);
+    }
+
+    Target(
+        Context context,
+        String name,
+        SharedTarget shared,
+        AtomicBuffer writeBuffer)
+    {
+        this(context, name, null, shared, shared.streamsBuffer(), newThrottleInbox(context), writeBuffer);
+    }
+
+    private Target(
+        Context context,
         String name,
         StreamsLayout layout,
+        SharedTarget shared,
+        RingBuffer streamsBuffer,
+        RingBuffer throttleBuffer,
         AtomicBuffer writeBuffer)
     {
+        final Counters counters = context.counters();
+
         this.name = name;
         this.layout = layout;
+        this.shared = shared;
         this.writeBuffer = writeBuffer;
-        this.streamsBuffer = layout.streamsBuffer();
-        this.throttleBuffer = layout.throttleBuffer();
+        this.streamsQueue = new PendingWriteQueue(streamsBuffer, context.streamsBufferCapacity(),
+                                                  counters.writesDeferred(), counters.writesDropped(),
+                                                  context.capture(), CaptureLayout.DIRECTION_TARGET);
+        this.throttleBuffer = throttleBuffer;
+        this.throttleInbox = shared != null ? new PendingWriteQueue(throttleBuffer, context.throttleBufferCapacity(),
+                                                                     counters.writesDeferred(), counters.writesDropped(),
+                                                                     null, CaptureLayout.DIRECTION_SOURCE) : null;
         this.throttles = new Long2ObjectHashMap<>();
+        this.throttlesActive = counters.throttlesActive();
+
+        this.sizeofData = dataRW.wrap(writeBuffer, 0, writeBuffer.capacity())
+                .streamId(0L)
+                .payload(p -> p.reset())
+                .extension(e -> e.reset())
+                .build()
+                .sizeof();
     }
 
     @Override
     public int process()
     {
-        return throttleBuffer.read(this::handleRead);
+        int workCount = 0;
+
+        workCount += streamsQueue.flush();
+
+        if (shared != null)
+        {
+            workCount += shared.read(throttleInbox);
+        }
+
+        workCount += throttleBuffer.read(this::handleRead);
+
+        return workCount;
     }
 
     @Override
     public void close() throws Exception
     {
-        layout.close();
+        throttlesActive.add(-throttles.size());
+
+        if (shared != null)
+        {
+            throttles.keySet().forEach(shared::removeThrottle);
+            shared.release();
+        }
+        else
+        {
+            layout.close();
+        }
+
+        throttles.clear();
     }
 
     @Override
@@ -90,17 +164,45 @@ public final class Target implements Nukleus
         return name;
     }
 
+    public int maxPayloadLength()
+    {
+        return writeBuffer.capacity() - sizeofData;
+    }
+
     public void addThrottle(
         long streamId,
         MessageHandler throttle)
     {
-        throttles.put(streamId, throttle);
+        if (throttles.put(streamId, throttle) == null)
+        {
+            throttlesActive.increment();
+        }
+
+        if (shared != null)
+        {
+            shared.addThrottle(streamId, throttleInbox);
+        }
     }
 
     public void removeThrottle(
         long streamId)
     {
-        throttles.remove(streamId);
+        if (throttles.remove(streamId) != null)
+        {
+            throttlesActive.add(-1L);
+        }
+
+        if (shared != null)
+        {
+            shared.removeThrottle(streamId);
+        }
+    }
+
+    private static RingBuffer newThrottleInbox(
+        Context context)
+    {
+        final int capacity = context.throttleBufferCapacity() + RingBufferDescriptor.TRAILER_LENGTH;
+        return new OneToOneRingBuffer(new UnsafeBuffer(ByteBuffer.allocateDirect(capacity)));
     }
 
     private void handleRead(
@@ -132,7 +234,7 @@ public final class Target implements Nukleus
                 .extension(e -> e.reset())
                 .build();
 
-        streamsBuffer.write(begin.typeId(), begin.buffer(), begin.offset(), begin.sizeof());
+        streamsQueue.write(begin.typeId(), begin.buffer(), begin.offset(), begin.sizeof());
     }
 
     public int doData(
@@ -141,30 +243,25 @@ public final class Target implements Nukleus
         int offset,
         int length)
     {
-        DataFW data = dataRW.wrap(writeBuffer, 0, writeBuffer.capacity())
-                .streamId(targetId)
-                .payload(p -> p.set(payload, offset, length))
-                .extension(e -> e.reset())
-                .build();
+        final int maxPayloadLength = maxPayloadLength();
 
-        streamsBuffer.write(data.typeId(), data.buffer(), data.offset(), data.length());
+        int written = 0;
+
+        while (written < length)
+        {
+            final int fragment = Math.min(length - written, maxPayloadLength);
+            doDataFrame(targetId, payload, offset + written, fragment);
+            written += fragment;
+        }
 
-        return data.length();
+        return written;
     }
 
     public int doData(
         long targetId,
         OctetsFW payload)
     {
-        DataFW data = dataRW.wrap(writeBuffer, 0, writeBuffer.capacity())
-                .streamId(targetId)
-                .payload(p -> p.set(payload))
-                .extension(e -> e.reset())
-                .build();
-
-        streamsBuffer.write(data.typeId(), data.buffer(), data.offset(), data.length());
-
-        return data.length();
+        return doData(targetId, payload.buffer(), payload.offset(), payload.sizeof());
     }
 
     public void doEnd(
@@ -175,10 +272,10 @@ public final class Target implements Nukleus
                 .extension(e -> e.reset())
                 .build();
 
-        streamsBuffer.write(end.typeId(), end.buffer(), end.offset(), end.sizeof());
+        streamsQueue.write(end.typeId(), end.buffer(), end.offset(), end.sizeof());
     }
 
-    public void doHttpBegin(
+    public BeginFW doHttpBegin(
         long targetId,
         long targetRef,
         long correlationId,
@@ -191,22 +288,38 @@ public final class Target implements Nukleus
                 .extension(e -> e.set(visitHttpBeginEx(mutator)))
                 .build();
 
-        streamsBuffer.write(begin.typeId(), begin.buffer(), begin.offset(), begin.sizeof());
+        streamsQueue.write(begin.typeId(), begin.buffer(), begin.offset(), begin.sizeof());
+
+        return begin;
     }
 
-    public void doHttpData(
+    public BeginFW doHttpBegin(
         long targetId,
-        DirectBuffer payload,
+        long targetRef,
+        long correlationId,
+        DirectBuffer extension,
         int offset,
         int length)
     {
-        DataFW data = dataRW.wrap(writeBuffer, 0, writeBuffer.capacity())
+        BeginFW begin = beginRW.wrap(writeBuffer, 0, writeBuffer.capacity())
                 .streamId(targetId)
-                .payload(p -> p.set(payload, offset, length))
-                .extension(e -> e.reset())
+                .referenceId(targetRef)
+                .correlationId(correlationId)
+                .extension(e -> e.set(extension, offset, length))
                 .build();
 
-        streamsBuffer.write(data.typeId(), data.buffer(), data.offset(), data.length());
+        streamsQueue.write(begin.typeId(), begin.buffer(), begin.offset(), begin.sizeof());
+
+        return begin;
+    }
+
+    public void doHttpData(
+        long targetId,
+        DirectBuffer payload,
+        int offset,
+        int length)
+    {
+        doData(targetId, payload, offset, length);
     }
 
     public void doHttpEnd(
@@ -217,7 +330,22 @@ public final class Target implements Nukleus
                 .extension(e -> e.reset())
                 .build();
 
-        streamsBuffer.write(end.typeId(), end.buffer(), end.offset(), end.sizeof());
+        streamsQueue.write(end.typeId(), end.buffer(), end.offset(), end.sizeof());
+    }
+
+    private void doDataFrame(
+        long targetId,
+        DirectBuffer payload,
+        int offset,
+        int length)
+    {
+        DataFW data = dataRW.wrap(writeBuffer, 0, writeBuffer.capacity())
+                .streamId(targetId)
+                .payload(p -> p.set(payload, offset, length))
+                .extension(e -> e.reset())
+                .build();
+
+        streamsQueue.write(data.typeId(), data.buffer(), data.offset(), data.sizeof());
     }
 
     private Flyweight.Builder.Visitor visitHttpBeginEx(
@@ -0,0 +1,305 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver.internal.routable.stream;
+
+import static org.agrona.BitUtil.findNextPositivePowerOfTwo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.reaktivity.reaktive.httpserver.internal.types.OctetsFW;
+
+final class RequestInputStream extends InputStream
+{
+    private final Lock lock;
+    private final Condition readable;
+    private final MutableDirectBuffer slot;
+    private final int mask;
+    private final Runnable onConsumed;
+
+    private long readPosition;
+    private long writePosition;
+    private int credit;
+    private boolean blocking;
+    private boolean ended;
+    private boolean reset;
+    private boolean closed;
+
+    RequestInputStream(
+        int capacity,
+        Runnable onConsumed)
+    {
+        this.lock = new ReentrantLock();
+        this.readable = lock.newCondition();
+        this.slot = new UnsafeBuffer(new byte[findNextPositivePowerOfTwo(capacity)]);
+        this.mask = slot.capacity() - 1;
+        this.onConsumed = onConsumed;
+    }
+
+    void init()
+    {
+        this.readPosition = 0L;
+        this.writePosition = 0L;
+        this.credit = 0;
+        this.blocking = false;
+        this.ended = false;
+        this.reset = false;
+        this.closed = false;
+    }
+
+    int capacity()
+    {
+        return slot.capacity();
+    }
+
+    void blocking(
+        boolean blocking)
+    {
+        this.blocking = blocking;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        int value = -1;
+
+        lock.lock();
+        try
+        {
+            if (awaitReadable())
+            {
+                value = slot.getByte((int) readPosition & mask) & 0xff;
+                readPosition++;
+                credit++;
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        if (value != -1)
+        {
+            onConsumed.run();
+        }
+
+        return value;
+    }
+
+    @Override
+    public int read(
+        byte[] b,
+        int off,
+        int len) throws IOException
+    {
+        if (len == 0)
+        {
+            return 0;
+        }
+
+        int length = -1;
+
+        lock.lock();
+        try
+        {
+            if (awaitReadable())
+            {
+                length = (int) Math.min(len, writePosition - readPosition);
+
+                final int index = (int) readPosition & mask;
+                final int remaining = Math.min(length, slot.capacity() - index);
+                slot.getBytes(index, b, off, remaining);
+                slot.getBytes(0, b, off + remaining, length - remaining);
+
+                readPosition += length;
+                credit += length;
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        if (length != -1)
+        {
+            onConsumed.run();
+        }
+
+        return length;
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        lock.lock();
+        try
+        {
+            return (int) (writePosition - readPosition);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        lock.lock();
+        try
+        {
+            if (!closed)
+            {
+                closed = true;
+                credit += (int) (writePosition - readPosition);
+                readPosition = writePosition;
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        onConsumed.run();
+    }
+
+    void onData(
+        OctetsFW payload)
+    {
+        final int length = payload.sizeof();
+        final boolean discarded;
+
+        lock.lock();
+        try
+        {
+            discarded = closed;
+
+            if (discarded)
+            {
+                credit += length;
+            }
+            else
+            {
+                final int index = (int) writePosition & mask;
+                final int remaining = Math.min(length, slot.capacity() - index);
+                slot.putBytes(index, payload.buffer(), payload.offset(), remaining);
+                slot.putBytes(0, payload.buffer(), payload.offset() + remaining, length - remaining);
+
+                writePosition += length;
+                readable.signal();
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        if (discarded)
+        {
+            onConsumed.run();
+        }
+    }
+
+    void onEnd()
+    {
+        lock.lock();
+        try
+        {
+            ended = true;
+            readable.signal();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    void onReset()
+    {
+        lock.lock();
+        try
+        {
+            reset = true;
+            readable.signal();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    int credit()
+    {
+        lock.lock();
+        try
+        {
+            return credit;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    int takeCredit()
+    {
+        lock.lock();
+        try
+        {
+            final int credit = ended || reset ? 0 : this.credit;
+            this.credit = 0;
+            return credit;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private boolean awaitReadable() throws IOException
+    {
+        while (readPosition == writePosition && !ended && !reset && !closed)
+        {
+            if (!blocking)
+            {
+                throw new IOException("request too large to buffer without an executor");
+            }
+
+            try
+            {
+                readable.await();
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+
+        if (reset)
+        {
+            throw new IOException("request reset");
+        }
+
+        return readPosition != writePosition;
+    }
+}
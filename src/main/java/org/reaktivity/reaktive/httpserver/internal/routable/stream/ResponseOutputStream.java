@@ -0,0 +1,554 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver.internal.routable.stream;
+
+import static org.agrona.BitUtil.findNextPositivePowerOfTwo;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.reaktivity.reaktive.httpserver.internal.DirectBufferOutput;
+import org.reaktivity.reaktive.httpserver.internal.routable.Target;
+
+final class ResponseOutputStream extends OutputStream implements DirectBufferOutput
+{
+    // inline handlers may buffer at most a few slots before they must use an executor
+    private static final int MAXIMUM_SLOT_GROWTH = 4;
+
+    private final Lock lock;
+    private final Condition writable;
+    private final MutableDirectBuffer initialSlot;
+    private final int maximumSlotCapacity;
+    private final Target target;
+    private final Runnable doBegin;
+    private final Runnable onWritten;
+    private final PayloadObserver onFlushed;
+
+    private MutableDirectBuffer slot;
+    private int mask;
+    private long targetId;
+    private long readPosition;
+    private long writePosition;
+    private DirectBuffer direct;
+    private int directOffset;
+    private int directLimit;
+    private long directFlushed;
+    private Runnable onTransferred;
+    private int window;
+    private boolean blocking;
+    private boolean opened;
+    private boolean begun;
+    private boolean closed;
+    private boolean ended;
+    private boolean reset;
+
+    ResponseOutputStream(
+        int capacity,
+        Target target,
+        Runnable doBegin,
+        Runnable onWritten,
+        PayloadObserver onFlushed)
+    {
+        this.lock = new ReentrantLock();
+        this.writable = lock.newCondition();
+        this.initialSlot = new UnsafeBuffer(new byte[findNextPositivePowerOfTwo(capacity)]);
+        this.maximumSlotCapacity = initialSlot.capacity() * MAXIMUM_SLOT_GROWTH;
+        this.slot = initialSlot;
+        this.mask = slot.capacity() - 1;
+        this.target = target;
+        this.doBegin = doBegin;
+        this.onWritten = onWritten;
+        this.onFlushed = onFlushed;
+    }
+
+    void init(
+        long targetId)
+    {
+        this.targetId = targetId;
+        this.slot = initialSlot;
+        this.mask = slot.capacity() - 1;
+        this.readPosition = 0L;
+        this.writePosition = 0L;
+        this.direct = null;
+        this.directOffset = 0;
+        this.directLimit = 0;
+        this.directFlushed = 0L;
+        this.onTransferred = null;
+        this.window = 0;
+        this.blocking = false;
+        this.opened = false;
+        this.begun = false;
+        this.closed = false;
+        this.ended = false;
+        this.reset = false;
+    }
+
+    void blocking(
+        boolean blocking)
+    {
+        this.blocking = blocking;
+    }
+
+    @Override
+    public void write(
+        int b) throws IOException
+    {
+        lock.lock();
+        try
+        {
+            awaitWritable();
+            slot.putByte((int) writePosition & mask, (byte) b);
+            writePosition++;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        onWritten.run();
+    }
+
+    @Override
+    public void write(
+        byte[] b,
+        int off,
+        int len) throws IOException
+    {
+        while (len > 0)
+        {
+            final int length;
+
+            lock.lock();
+            try
+            {
+                awaitWritable();
+
+                length = (int) Math.min(len, slot.capacity() - (writePosition - readPosition));
+
+                final int index = (int) writePosition & mask;
+                final int remaining = Math.min(length, slot.capacity() - index);
+                slot.putBytes(index, b, off, remaining);
+                slot.putBytes(0, b, off + remaining, length - remaining);
+
+                writePosition += length;
+            }
+            finally
+            {
+                lock.unlock();
+            }
+
+            onWritten.run();
+
+            off += length;
+            len -= length;
+        }
+    }
+
+    @Override
+    public void write(
+        DirectBuffer buffer,
+        int offset,
+        int length) throws IOException
+    {
+        transfer(buffer, offset, length, null);
+
+        lock.lock();
+        try
+        {
+            awaitDirectFlushed();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void transfer(
+        DirectBuffer buffer,
+        int offset,
+        int length,
+        Runnable onTransferred) throws IOException
+    {
+        lock.lock();
+        try
+        {
+            awaitWritable();
+
+            if (length > 0)
+            {
+                direct = buffer;
+                directOffset = offset;
+                directLimit = offset + length;
+                this.onTransferred = onTransferred;
+            }
+        }
+        catch (IOException ex)
+        {
+            if (onTransferred != null)
+            {
+                onTransferred.run();
+            }
+
+            throw ex;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        if (length > 0)
+        {
+            onWritten.run();
+        }
+        else if (onTransferred != null)
+        {
+            onTransferred.run();
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        lock.lock();
+        try
+        {
+            closed = true;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        onWritten.run();
+    }
+
+    void open(
+        boolean empty)
+    {
+        lock.lock();
+        try
+        {
+            opened = true;
+            closed = empty;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        onWritten.run();
+    }
+
+    void onWindow(
+        int update)
+    {
+        lock.lock();
+        try
+        {
+            window += update;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    void onReset()
+    {
+        lock.lock();
+        try
+        {
+            reset = true;
+
+            if (direct != null)
+            {
+                onDirectDone();
+            }
+
+            writable.signal();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    boolean begun()
+    {
+        lock.lock();
+        try
+        {
+            return begun;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    void abort()
+    {
+        lock.lock();
+        try
+        {
+            if (direct != null)
+            {
+                onDirectDone();
+            }
+
+            writePosition = readPosition;
+            opened = true;
+            closed = true;
+
+            if (begun && !ended)
+            {
+                target.doHttpEnd(targetId);
+                ended = true;
+            }
+
+            writable.signal();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    long flushed()
+    {
+        lock.lock();
+        try
+        {
+            return readPosition + directFlushed;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    boolean flushFrames()
+    {
+        lock.lock();
+        try
+        {
+            if (opened && !ended && !reset)
+            {
+                if (!begun)
+                {
+                    doBegin.run();
+                    begun = true;
+                }
+
+                final int maxPayloadLength = target.maxPayloadLength();
+
+                while (window > 0 && writePosition > readPosition)
+                {
+                    final int index = (int) readPosition & mask;
+                    final int length = (int) Math.min(Math.min(window, maxPayloadLength),
+                                                      Math.min(writePosition - readPosition, slot.capacity() - index));
+
+                    target.doHttpData(targetId, slot, index, length);
+                    onFlushed.onPayload(slot, index, length);
+
+                    readPosition += length;
+                    window -= length;
+                    writable.signal();
+                }
+
+                while (window > 0 && direct != null && writePosition == readPosition)
+                {
+                    final int length = Math.min(Math.min(window, maxPayloadLength), directLimit - directOffset);
+
+                    target.doHttpData(targetId, direct, directOffset, length);
+                    onFlushed.onPayload(direct, directOffset, length);
+
+                    directOffset += length;
+                    directFlushed += length;
+                    window -= length;
+
+                    if (directOffset == directLimit)
+                    {
+                        onDirectDone();
+                        writable.signal();
+                    }
+                }
+
+                if (closed && writePosition == readPosition && direct == null)
+                {
+                    target.doHttpEnd(targetId);
+                    ended = true;
+                }
+            }
+
+            return ended;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private void onDirectDone()
+    {
+        final Runnable onTransferred = this.onTransferred;
+
+        this.direct = null;
+        this.onTransferred = null;
+
+        if (onTransferred != null)
+        {
+            onTransferred.run();
+        }
+    }
+
+    private void awaitDirectFlushed() throws IOException
+    {
+        while (direct != null && blocking && !reset)
+        {
+            try
+            {
+                writable.await();
+            }
+            catch (InterruptedException ex)
+            {
+                direct = null;
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+
+        if (reset)
+        {
+            direct = null;
+            throw new IOException("response reset");
+        }
+
+        spillDirect();
+    }
+
+    private void spillDirect() throws IOException
+    {
+        if (direct != null)
+        {
+            final int length = directLimit - directOffset;
+
+            try
+            {
+                ensureCapacity(length);
+            }
+            catch (IOException ex)
+            {
+                onDirectDone();
+                throw ex;
+            }
+
+            final int index = (int) writePosition & mask;
+            final int remaining = Math.min(length, slot.capacity() - index);
+            slot.putBytes(index, direct, directOffset, remaining);
+            slot.putBytes(0, direct, directOffset + remaining, length - remaining);
+
+            writePosition += length;
+            onDirectDone();
+        }
+    }
+
+    private void ensureCapacity(
+        int length) throws IOException
+    {
+        final long required = writePosition - readPosition + length;
+
+        if (required > slot.capacity())
+        {
+            if (required > maximumSlotCapacity)
+            {
+                throw new IOException("response too large to buffer without an executor");
+            }
+
+            final MutableDirectBuffer newSlot = new UnsafeBuffer(new byte[findNextPositivePowerOfTwo((int) required)]);
+            final int newMask = newSlot.capacity() - 1;
+
+            for (long position = readPosition; position < writePosition;)
+            {
+                final int index = (int) position & mask;
+                final int newIndex = (int) position & newMask;
+                final int chunk = (int) Math.min(writePosition - position,
+                                                 Math.min(slot.capacity() - index, newSlot.capacity() - newIndex));
+
+                newSlot.putBytes(newIndex, slot, index, chunk);
+                position += chunk;
+            }
+
+            this.slot = newSlot;
+            this.mask = newMask;
+        }
+    }
+
+    private void awaitWritable() throws IOException
+    {
+        if (!opened)
+        {
+            throw new IOException("response headers not yet sent");
+        }
+
+        if (!blocking && !reset && !closed)
+        {
+            // no window can arrive while an inline handler runs, so keep the response pending on the heap
+            spillDirect();
+            ensureCapacity(1);
+        }
+
+        while ((writePosition - readPosition == slot.capacity() || direct != null) && !reset && !closed)
+        {
+            try
+            {
+                writable.await();
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+
+        if (reset)
+        {
+            throw new IOException("response reset");
+        }
+
+        if (closed)
+        {
+            throw new IOException("response closed");
+        }
+    }
+
+    @FunctionalInterface
+    interface PayloadObserver
+    {
+        void onPayload(
+            DirectBuffer buffer,
+            int offset,
+            int length);
+    }
+}
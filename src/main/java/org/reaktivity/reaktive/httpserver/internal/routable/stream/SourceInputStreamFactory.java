@@ -15,18 +15,43 @@
  */
 package org.reaktivity.reaktive.httpserver.internal.routable.stream;
 
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.agrona.BitUtil.SIZE_OF_BYTE;
+
 import java.io.IOException;
-import java.util.function.LongFunction;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.function.LongSupplier;
 
 import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.ExpandableArrayBuffer;
 import org.agrona.LangUtil;
 import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
 import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.reaktivity.reaktive.httpserver.ResponseTemplate;
+import org.reaktivity.reaktive.httpserver.internal.Context;
+import org.reaktivity.reaktive.httpserver.internal.Counters;
+import org.reaktivity.reaktive.httpserver.internal.HttpContextImpl;
 import org.reaktivity.reaktive.httpserver.internal.HttpExchangeImpl;
+import org.reaktivity.reaktive.httpserver.internal.HttpServerImpl;
+import org.reaktivity.reaktive.httpserver.internal.Resolver;
+import org.reaktivity.reaktive.httpserver.internal.ResponseCacheImpl;
+import org.reaktivity.reaktive.httpserver.internal.RouteCounters;
 import org.reaktivity.reaktive.httpserver.internal.routable.Source;
 import org.reaktivity.reaktive.httpserver.internal.routable.Target;
+import org.reaktivity.reaktive.httpserver.internal.types.HttpHeaderFW;
+import org.reaktivity.reaktive.httpserver.internal.types.ListFW;
 import org.reaktivity.reaktive.httpserver.internal.types.OctetsFW;
+import org.reaktivity.reaktive.httpserver.internal.types.StringFW;
 import org.reaktivity.reaktive.httpserver.internal.types.stream.BeginFW;
 import org.reaktivity.reaktive.httpserver.internal.types.stream.DataFW;
 import org.reaktivity.reaktive.httpserver.internal.types.stream.EndFW;
@@ -35,14 +60,33 @@ import org.reaktivity.reaktive.httpserver.internal.types.stream.HttpBeginExFW;
 import org.reaktivity.reaktive.httpserver.internal.types.stream.ResetFW;
 import org.reaktivity.reaktive.httpserver.internal.types.stream.WindowFW;
 
-import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
 
 @SuppressWarnings("restriction")
 public final class SourceInputStreamFactory
 {
+    private static final int SIGNAL_QUEUE_CAPACITY = 4096;
+    private static final int STRING_LENGTH_SIZE = SIZE_OF_BYTE;
+    private static final byte[] PATH_PSEUDO_HEADER_NAME = ":path".getBytes(US_ASCII);
+    private static final byte[] METHOD_PSEUDO_HEADER_NAME = ":method".getBytes(US_ASCII);
+    private static final byte[] GET_METHOD = "GET".getBytes(US_ASCII);
+    private static final byte[] AUTHORIZATION_HEADER_NAME = "authorization".getBytes(US_ASCII);
+    private static final int CACHE_KEY_VALUE_PRESENT = 0;
+    private static final int CACHE_KEY_VALUE_ABSENT = 1;
+    private static final int STATUS_INTERNAL_ERROR = 500;
+    private static final String[] STATUS_CODES = new String[600];
+
+    static
+    {
+        for (int status = 0; status < STATUS_CODES.length; status++)
+        {
+            STATUS_CODES[status] = Integer.toString(status);
+        }
+    }
+
     private final FrameFW frameRO = new FrameFW();
 
     private final BeginFW beginRO = new BeginFW();
@@ -57,23 +101,265 @@ public final class SourceInputStreamFactory
     private final Source source;
     private final Target target;
     private final LongSupplier supplyTargetId;
-    private final LongFunction<HttpContext> supplyContext;
+    private final Resolver resolver;
+    private final ErrorHandler errorHandler;
+    private final int bufferSlotCapacity;
+    private final ManyToOneConcurrentArrayQueue<SourceInputStream> signaled;
+    private final Consumer<SourceInputStream> flushSignaled;
+    private final Consumer<HttpHeaderFW> matchPath;
+    private final Consumer<HttpHeaderFW> matchCacheKey;
+    private final Counters counters;
+    private final Long2ObjectHashMap<SourceInputStream> active;
+    private final SourceInputStream[] pool;
+    private final AtomicCounter poolHits;
+    private final AtomicCounter poolMisses;
+    private final AtomicCounter streamsReaped;
+    private final long idleTimeout;
+    private final int windowThreshold;
+
+    private Thread thread;
+    private int pooled;
+    private long now;
+    private long nextReapAt;
+    private int pathOffset;
+    private int pathLength;
+    private boolean methodGet;
+    private boolean authorized;
+    private byte[][] varyHeaders;
+    private int[] varyOffsets = new int[0];
+    private int[] varyLengths = new int[0];
 
     public SourceInputStreamFactory(
+        Context context,
         Source source,
         Target target,
-        LongFunction<HttpContext> supplyContext,
+        Resolver resolver,
         LongSupplier supplyTargetId)
     {
         this.source = source;
         this.target = target;
-        this.supplyContext = supplyContext;
+        this.resolver = resolver;
         this.supplyTargetId = supplyTargetId;
+        this.errorHandler = context.errorHandler() != null ? context.errorHandler() : ex -> ex.printStackTrace(System.err);
+        this.bufferSlotCapacity = context.bufferSlotCapacity();
+        this.signaled = new ManyToOneConcurrentArrayQueue<>(SIGNAL_QUEUE_CAPACITY);
+        this.flushSignaled = SourceInputStream::flushSignaled;
+        this.matchPath = this::matchPath;
+        this.matchCacheKey = this::matchCacheKey;
+        this.counters = context.counters();
+        this.active = new Long2ObjectHashMap<>();
+        this.pool = new SourceInputStream[context.streamPoolCapacity()];
+        this.poolHits = context.counters().streamPoolHits();
+        this.poolMisses = context.counters().streamPoolMisses();
+        this.streamsReaped = context.counters().streamsReaped();
+        this.idleTimeout = context.streamIdleTimeout();
+        this.windowThreshold = context.windowThreshold();
     }
 
     public MessageHandler newStream()
     {
-        return new SourceInputStream()::handleStream;
+        this.thread = Thread.currentThread();
+
+        SourceInputStream stream;
+
+        if (pooled > 0)
+        {
+            stream = pool[--pooled];
+            pool[pooled] = null;
+            poolHits.increment();
+        }
+        else
+        {
+            stream = new SourceInputStream();
+            poolMisses.increment();
+        }
+
+        stream.init();
+
+        return stream.handleStream;
+    }
+
+    public int flush()
+    {
+        int workCount = signaled.drain(flushSignaled);
+
+        if (idleTimeout > 0L)
+        {
+            workCount += reapIdle();
+        }
+
+        return workCount;
+    }
+
+    public void close()
+    {
+        active.values().forEach(SourceInputStream::abort);
+        active.clear();
+    }
+
+    private int reapIdle()
+    {
+        this.now = System.currentTimeMillis();
+
+        int workCount = 0;
+
+        if (now >= nextReapAt)
+        {
+            nextReapAt = now + Math.max(idleTimeout >> 2, 1L);
+
+            final Iterator<SourceInputStream> iterator = active.values().iterator();
+            while (iterator.hasNext())
+            {
+                final SourceInputStream stream = iterator.next();
+
+                if (now - stream.lastActive >= idleTimeout)
+                {
+                    iterator.remove();
+                    stream.expire();
+                    streamsReaped.increment();
+                    workCount++;
+                }
+            }
+        }
+
+        return workCount;
+    }
+
+    private HttpContext resolve(
+        HttpBeginExFW beginEx)
+    {
+        this.pathLength = -1;
+        beginEx.headers().forEach(matchPath);
+
+        return pathLength != -1 ? resolver.resolve(beginEx.buffer(), pathOffset, pathLength) : null;
+    }
+
+    private void matchPath(
+        HttpHeaderFW header)
+    {
+        if (pathLength == -1 && matches(header.name(), PATH_PSEUDO_HEADER_NAME))
+        {
+            final StringFW value = header.value();
+            pathOffset = value.offset() + STRING_LENGTH_SIZE;
+            pathLength = value.sizeof() - STRING_LENGTH_SIZE;
+        }
+    }
+
+    private int cacheKey(
+        ResponseCacheImpl cache,
+        HttpBeginExFW beginEx,
+        MutableDirectBuffer key)
+    {
+        final byte[][] varyHeaders = cache.varyHeaders();
+
+        if (varyOffsets.length < varyHeaders.length)
+        {
+            varyOffsets = new int[varyHeaders.length];
+            varyLengths = new int[varyHeaders.length];
+        }
+
+        this.varyHeaders = varyHeaders;
+        this.methodGet = false;
+        this.authorized = false;
+        Arrays.fill(varyLengths, -1);
+        beginEx.headers().forEach(matchCacheKey);
+
+        if (!methodGet || pathLength == -1)
+        {
+            return -1;
+        }
+
+        final DirectBuffer buffer = beginEx.buffer();
+
+        int keyLength = 0;
+        key.putBytes(keyLength, buffer, pathOffset, pathLength);
+        keyLength += pathLength;
+
+        for (int i = 0; i < varyHeaders.length; i++)
+        {
+            if (varyLengths[i] == -1)
+            {
+                key.putByte(keyLength++, (byte) CACHE_KEY_VALUE_ABSENT);
+            }
+            else
+            {
+                key.putByte(keyLength++, (byte) CACHE_KEY_VALUE_PRESENT);
+                key.putBytes(keyLength, buffer, varyOffsets[i], varyLengths[i]);
+                keyLength += varyLengths[i];
+            }
+        }
+
+        return keyLength;
+    }
+
+    private void matchCacheKey(
+        HttpHeaderFW header)
+    {
+        final StringFW name = header.name();
+
+        if (matches(name, METHOD_PSEUDO_HEADER_NAME))
+        {
+            methodGet = matches(header.value(), GET_METHOD);
+        }
+        else if (matchesIgnoreCase(name, AUTHORIZATION_HEADER_NAME))
+        {
+            authorized = true;
+        }
+        else
+        {
+            for (int i = 0; i < varyHeaders.length; i++)
+            {
+                if (varyLengths[i] == -1 && matchesIgnoreCase(name, varyHeaders[i]))
+                {
+                    final StringFW value = header.value();
+                    varyOffsets[i] = value.offset() + STRING_LENGTH_SIZE;
+                    varyLengths[i] = value.sizeof() - STRING_LENGTH_SIZE;
+                }
+            }
+        }
+    }
+
+    private static String status(
+        int status)
+    {
+        return status >= 0 && status < STATUS_CODES.length ? STATUS_CODES[status] : Integer.toString(status);
+    }
+
+    private static boolean matches(
+        StringFW actual,
+        byte[] expected)
+    {
+        final DirectBuffer buffer = actual.buffer();
+        final int offset = actual.offset() + STRING_LENGTH_SIZE;
+        final int length = actual.sizeof() - STRING_LENGTH_SIZE;
+
+        boolean matches = length == expected.length;
+
+        for (int i = 0; matches && i < length; i++)
+        {
+            matches = buffer.getByte(offset + i) == expected[i];
+        }
+
+        return matches;
+    }
+
+    private static boolean matchesIgnoreCase(
+        StringFW actual,
+        byte[] expected)
+    {
+        final DirectBuffer buffer = actual.buffer();
+        final int offset = actual.offset() + STRING_LENGTH_SIZE;
+        final int length = actual.sizeof() - STRING_LENGTH_SIZE;
+
+        boolean matches = length == expected.length;
+
+        for (int i = 0; matches && i < length; i++)
+        {
+            final int ch = buffer.getByte(offset + i);
+            matches = (ch >= 'A' && ch <= 'Z' ? ch + ('a' - 'A') : ch) == expected[i];
+        }
+
+        return matches;
     }
 
     private final class SourceInputStream
@@ -86,6 +372,41 @@ public final class SourceInputStreamFactory
         private long targetId;
         private int window;
 
+        private final MessageHandler handleStream = this::handleStream;
+        private final MessageHandler handleThrottle = this::handleThrottle;
+        private final Consumer<ListFW.Builder<HttpHeaderFW.Builder, HttpHeaderFW>> encodeHeaders = this::encodeHeaders;
+        private final Consumer<HttpHeaderFW.Builder> encodeHeader = this::encodeHeader;
+        private final Runnable handle = this::handle;
+        private final AtomicBoolean signaling = new AtomicBoolean();
+
+        private final HttpExchangeImpl exchange;
+        private final RequestInputStream requestBody;
+        private final ResponseOutputStream responseBody;
+        private final int creditThreshold;
+
+        private HttpHandler handler;
+        private boolean dispatched;
+        private boolean deferred;
+        private volatile boolean handlerDone;
+        private volatile boolean handlerFailed;
+        private boolean requestDone;
+        private boolean responseDone;
+        private boolean released;
+        private boolean expired;
+        private long lastActive;
+        private RouteCounters route;
+        private long beginAt;
+        private String headerName;
+        private String headerValue;
+        private ResponseCacheImpl cache;
+        private ResponseCacheImpl.Slot cached;
+        private ResponseCacheImpl.Slot recording;
+        private MutableDirectBuffer cacheKey;
+        private int cacheKeyLength;
+        private boolean cacheAuthorized;
+        private boolean responseStorable;
+        private boolean responseShared;
+
         @Override
         public String toString()
         {
@@ -94,9 +415,110 @@ public final class SourceInputStreamFactory
         }
 
         private SourceInputStream()
+        {
+            this.exchange = new HttpExchangeImpl();
+            this.requestBody = new RequestInputStream(bufferSlotCapacity, this::onRequestConsumed);
+            this.responseBody = new ResponseOutputStream(bufferSlotCapacity, target,
+                                                         this::doResponseBegin, this::onResponseWritten,
+                                                         this::onResponseFlushed);
+            this.creditThreshold = (int) ((long) requestBody.capacity() * windowThreshold / 100L);
+        }
+
+        private void init()
         {
             this.streamState = this::beforeBegin;
-            this.throttleState = this::throttleSkipNextWindow;
+            this.throttleState = this::throttleNextWindow;
+            this.handler = null;
+            this.dispatched = false;
+            this.deferred = false;
+            this.handlerDone = true;
+            this.handlerFailed = false;
+            this.requestDone = false;
+            this.responseDone = false;
+            this.released = false;
+            this.expired = false;
+            this.lastActive = now;
+            this.route = null;
+            this.cache = null;
+            this.cached = null;
+            this.recording = null;
+            this.cacheKeyLength = -1;
+        }
+
+        private void onRequestDone()
+        {
+            if (!requestDone)
+            {
+                requestDone = true;
+                source.removeStream(sourceId);
+                releaseIfDone();
+            }
+        }
+
+        private void onResponseDone()
+        {
+            if (!responseDone)
+            {
+                responseDone = true;
+                target.removeThrottle(targetId);
+
+                if (!requestDone)
+                {
+                    // discard the unread request body, crediting it back to the peer
+                    requestBody.close();
+                }
+
+                releaseIfDone();
+            }
+        }
+
+        private void releaseIfDone()
+        {
+            if (requestDone && responseDone)
+            {
+                active.remove(sourceId);
+
+                // handler may still reference the exchange, and a queued signal may still reference this stream
+                if (handlerDone && !signaling.get() && !released)
+                {
+                    released = true;
+
+                    if (!expired && pooled < pool.length)
+                    {
+                        pool[pooled++] = this;
+                    }
+                }
+            }
+        }
+
+        private void expire()
+        {
+            this.expired = true;
+
+            if (!requestDone)
+            {
+                source.doReset(sourceId);
+            }
+
+            abort();
+            recordReset();
+
+            onRequestDone();
+            onResponseDone();
+        }
+
+        private void abort()
+        {
+            if (deferred)
+            {
+                deferred = false;
+                handlerDone = true;
+            }
+
+            requestBody.onReset();
+            responseBody.onReset();
+            target.removeThrottle(targetId);
+            abandonRecording();
         }
 
         private void handleStream(
@@ -105,6 +527,7 @@ public final class SourceInputStreamFactory
             int index,
             int length)
         {
+            lastActive = now;
             streamState.onMessage(msgTypeId, buffer, index, length);
         }
 
@@ -120,7 +543,7 @@ public final class SourceInputStreamFactory
             }
             else
             {
-                processUnexpected(buffer, index, length);
+                processReject(buffer, index, length);
             }
         }
 
@@ -153,28 +576,17 @@ public final class SourceInputStreamFactory
             processUnexpected(buffer, index, length);
         }
 
-        private void afterRejectOrReset(
-            int msgTypeId,
-            MutableDirectBuffer buffer,
+        private void processReject(
+            DirectBuffer buffer,
             int index,
             int length)
         {
-            if (msgTypeId == DataFW.TYPE_ID)
-            {
-                dataRO.wrap(buffer, index, index + length);
-                final long streamId = dataRO.streamId();
-
-                source.doWindow(streamId, length);
-            }
-            else if (msgTypeId == EndFW.TYPE_ID)
-            {
-                endRO.wrap(buffer, index, index + length);
-                final long streamId = endRO.streamId();
+            frameRO.wrap(buffer, index, index + length);
 
-                source.removeStream(streamId);
+            this.sourceId = frameRO.streamId();
+            this.responseDone = true;
 
-                this.streamState = this::afterEnd;
-            }
+            processUnexpected(buffer, index, length);
         }
 
         private void processUnexpected(
@@ -186,9 +598,17 @@ public final class SourceInputStreamFactory
 
             final long streamId = frameRO.streamId();
 
+            requestBody.onReset();
             source.doReset(streamId);
 
-            this.streamState = this::afterRejectOrReset;
+            if (deferred)
+            {
+                abort();
+                onResponseDone();
+            }
+
+            this.streamState = this::afterEnd;
+            onRequestDone();
         }
 
         private void processBegin(
@@ -199,59 +619,477 @@ public final class SourceInputStreamFactory
             beginRO.wrap(buffer, index, index + length);
 
             final long newSourceId = beginRO.streamId();
-            final long newSourceRef = beginRO.referenceId();
             final long correlationId = beginRO.correlationId();
             final OctetsFW extension = beginRO.extension();
 
             final long newTargetId = supplyTargetId.getAsLong();
 
-            final HttpContext context = supplyContext.apply(newSourceRef);
+            final HttpBeginExFW beginEx = extension.sizeof() > 0 ? extension.get(beginExRO::wrap) : null;
+            final HttpContext context = beginEx != null ? resolve(beginEx) : null;
             final HttpHandler handler = (context != null) ? context.getHandler() : null;
 
-            if (handler != null && extension.sizeof() > 0)
+            if (handler != null)
             {
                 this.correlationId = correlationId;
                 this.sourceId = newSourceId;
                 this.targetId = newTargetId;
+                this.handler = handler;
+                this.route = counters.routeCounters((HttpContextImpl) context);
+                this.beginAt = System.nanoTime();
+                if (route != null)
+                {
+                    route.requests().increment();
+                }
+                active.put(newSourceId, this);
+
+                requestBody.init();
+                responseBody.init(newTargetId);
+                exchange.init(context, beginEx, requestBody, responseBody, this::doHttpBegin);
 
-                final HttpExchangeImpl exchange = new HttpExchangeImpl();
-                exchange.init(context, extension.get(beginExRO::wrap), this::doHttpBegin, this::doHttpEnd);
+                this.window = requestBody.capacity();
+                source.doWindow(newSourceId, window);
 
-                try
+                this.streamState = this::afterBeginOrData;
+
+                final ResponseCacheImpl cache = ((HttpContextImpl) context).responseCache();
+                final ResponseCacheImpl.Slot cached = cache != null ? lookup(cache, beginEx) : null;
+                final HttpServer server = context.getServer();
+                final Executor executor = server instanceof HttpServerImpl ?
+                        ((HttpServerImpl) server).dispatchExecutor() : server.getExecutor();
+
+                if (cached != null)
                 {
-                    // TODO: dispatch on Executor if request body incomplete
-                    handler.handle(exchange);
+                    replay(cached);
                 }
-                catch (IOException ex)
+                else if (executor != null)
                 {
-                    LangUtil.rethrowUnchecked(ex);
+                    this.dispatched = true;
+                    this.handlerDone = false;
+                    requestBody.blocking(true);
+                    responseBody.blocking(true);
+
+                    executor.execute(handle);
                 }
+                else
+                {
+                    // inline handlers cannot wait for DATA, so run once the body has arrived or fills the window
+                    this.handlerDone = false;
+                    this.deferred = true;
+                }
+            }
+            else
+            {
+                processReject(buffer, index, length);
+            }
+        }
 
-                this.streamState = this::afterBeginOrData;
-                this.throttleState = this::throttleNextThenSkipWindow;
+        private ResponseCacheImpl.Slot lookup(
+            ResponseCacheImpl cache,
+            HttpBeginExFW beginEx)
+        {
+            if (cacheKey == null)
+            {
+                cacheKey = new ExpandableArrayBuffer();
+            }
+
+            this.cache = cache;
+            this.cacheKeyLength = cacheKey(cache, beginEx, cacheKey);
+            this.cacheAuthorized = authorized;
+
+            final ResponseCacheImpl.Slot cached = cacheKeyLength != -1 ?
+                    cache.acquire(cacheKey, cacheKeyLength, System.currentTimeMillis()) : null;
+
+            if (cacheKeyLength != -1)
+            {
+                (cached != null ? counters.responseCacheHits() : counters.responseCacheMisses()).increment();
+            }
+
+            return cached;
+        }
+
+        private void replay(
+            ResponseCacheImpl.Slot cached)
+        {
+            this.cached = cached;
+
+            try
+            {
+                responseBody.open(false);
+                responseBody.transfer(cache.buffer(), cached.bodyOffset(), cached.bodyLength(), cached.release());
+                responseBody.close();
+            }
+            catch (IOException ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+        }
+
+        private void handleDeferred()
+        {
+            deferred = false;
+            handle();
+        }
+
+        private void handle()
+        {
+            try
+            {
+                handler.handle(exchange);
+            }
+            catch (IOException | RuntimeException ex)
+            {
+                handlerFailed = true;
+                errorHandler.onError(ex);
+            }
+            finally
+            {
+                onHandlerDone();
+            }
+        }
+
+        private void onHandlerDone()
+        {
+            if (dispatched)
+            {
+                final boolean pending = signaling.getAndSet(true);
+
+                handlerDone = true;
+
+                if (!pending)
+                {
+                    offerSignal();
+                }
             }
             else
             {
-                processUnexpected(buffer, index, length);
+                handlerDone = true;
+
+                if (handlerFailed)
+                {
+                    onHandlerFailed();
+                }
+
+                releaseIfDone();
+            }
+        }
+
+        private void onHandlerFailed()
+        {
+            handlerFailed = false;
+
+            if (!responseDone)
+            {
+                final boolean begun = responseBody.begun();
+
+                responseBody.abort();
+                abandonRecording();
+
+                if (begun)
+                {
+                    recordReset();
+                    onResponseDone();
+                }
+                else
+                {
+                    exchange.resetResponse(STATUS_INTERNAL_ERROR);
+                    doResponseFlush();
+                }
+            }
+
+            if (!requestDone)
+            {
+                requestBody.onReset();
+                source.doReset(sourceId);
+                this.streamState = this::afterEnd;
+            }
+
+            onRequestDone();
+        }
+
+        private void onRequestConsumed()
+        {
+            if (Thread.currentThread() == thread)
+            {
+                // signals are drained by this thread, so never wait on the queue here
+                if (requestBody.credit() >= creditThreshold)
+                {
+                    doRequestWindow();
+                }
+            }
+            else
+            {
+                signal();
             }
         }
 
+        private void onResponseWritten()
+        {
+            if (dispatched && Thread.currentThread() != thread)
+            {
+                signal();
+            }
+            else
+            {
+                doResponseFlush();
+            }
+        }
+
+        private void signal()
+        {
+            if (signaling.compareAndSet(false, true))
+            {
+                offerSignal();
+            }
+        }
+
+        private void offerSignal()
+        {
+            while (!signaled.offer(this))
+            {
+                Thread.yield();
+            }
+        }
+
+        private void flushSignaled()
+        {
+            signaling.set(false);
+            lastActive = now;
+
+            if (handlerFailed)
+            {
+                onHandlerFailed();
+            }
+
+            doRequestWindow();
+            doResponseFlush();
+            releaseIfDone();
+        }
+
         private void doHttpBegin(
-            HttpExchange exchange)
+            HttpExchange exchange,
+            long responseLength)
+        {
+            responseBody.open(responseLength == -1L);
+        }
+
+        private void doResponseBegin()
+        {
+            final ResponseTemplate template = exchange.responseTemplate();
+
+            target.addThrottle(targetId, handleThrottle);
+
+            if (cached != null)
+            {
+                target.doHttpBegin(targetId, 0L, correlationId,
+                                   cache.buffer(), cached.extensionOffset(), cached.extensionLength());
+            }
+            else
+            {
+                final int status = exchange.getResponseCode();
+                final boolean storable = cacheKeyLength != -1 && storable(status);
+
+                if (template != null && exchange.getResponseHeaders().isEmpty())
+                {
+                    final DirectBuffer extension = template.extension();
+                    target.doHttpBegin(targetId, 0L, correlationId, extension, 0, extension.capacity());
+
+                    if (storable)
+                    {
+                        recording = cache.reserve(cacheKey, cacheKeyLength, status, extension, 0, extension.capacity());
+                    }
+                }
+                else
+                {
+                    // encoded in the private write buffer, never read back from the streams ring buffer
+                    final BeginFW begin = target.doHttpBegin(targetId, 0L, correlationId, encodeHeaders);
+
+                    if (storable)
+                    {
+                        final OctetsFW extension = begin.extension();
+                        recording = cache.reserve(cacheKey, cacheKeyLength, status,
+                                                  extension.buffer(), extension.offset(), extension.sizeof());
+                    }
+                }
+            }
+        }
+
+        private boolean storable(
+            int status)
+        {
+            this.responseStorable = status == 200;
+            this.responseShared = false;
+
+            final ResponseTemplate template = exchange.responseTemplate();
+
+            if (template != null)
+            {
+                for (int i = 0; responseStorable && i < template.headerCount(); i++)
+                {
+                    inspectResponseHeader(template.headerName(i), template.headerValue(i));
+                }
+            }
+
+            for (Map.Entry<String, List<String>> entry : exchange.getResponseHeaders().entrySet())
+            {
+                for (String value : entry.getValue())
+                {
+                    if (responseStorable)
+                    {
+                        inspectResponseHeader(entry.getKey(), value);
+                    }
+                }
+            }
+
+            // RFC 7234 section 3.2, shared caches store authorized responses only when explicitly allowed
+            return responseStorable && (!cacheAuthorized || responseShared);
+        }
+
+        private void inspectResponseHeader(
+            String name,
+            String value)
+        {
+            if ("set-cookie".equalsIgnoreCase(name))
+            {
+                responseStorable = false;
+            }
+            else if ("cache-control".equalsIgnoreCase(name))
+            {
+                for (String directive : value.split(","))
+                {
+                    final String token = directive.trim().toLowerCase();
+                    final int equals = token.indexOf('=');
+                    final String directiveName = equals != -1 ? token.substring(0, equals).trim() : token;
+
+                    switch (directiveName)
+                    {
+                    case "no-store":
+                    case "no-cache":
+                    case "private":
+                        responseStorable = false;
+                        break;
+                    case "public":
+                    case "s-maxage":
+                    case "must-revalidate":
+                        responseShared = true;
+                        break;
+                    default:
+                        break;
+                    }
+                }
+            }
+            else if ("vary".equalsIgnoreCase(name))
+            {
+                for (String header : value.split(","))
+                {
+                    final String varyHeader = header.trim();
+
+                    if ("*".equals(varyHeader) || !cache.varies(varyHeader))
+                    {
+                        responseStorable = false;
+                    }
+                }
+            }
+        }
+
+        private void onResponseFlushed(
+            DirectBuffer buffer,
+            int offset,
+            int length)
+        {
+            if (recording != null && !cache.append(recording, buffer, offset, length))
+            {
+                abandonRecording();
+            }
+        }
+
+        private void abandonRecording()
+        {
+            if (recording != null)
+            {
+                cache.abandon(recording);
+                recording = null;
+            }
+        }
+
+        private void encodeHeaders(
+            ListFW.Builder<HttpHeaderFW.Builder, HttpHeaderFW> headers)
         {
-            int status = exchange.getResponseCode();
-            Headers headers = exchange.getResponseHeaders();
-            target.doHttpBegin(targetId, 0L, correlationId, hs ->
+            final ResponseTemplate template = exchange.responseTemplate();
+
+            if (template != null)
+            {
+                for (int i = 0; i < template.headerCount(); i++)
+                {
+                    encodeHeader(headers, template.headerName(i), template.headerValue(i));
+                }
+            }
+            else
             {
-                hs.item(i -> i.name(":status").value(Integer.toString(status)));
-                headers.forEach((k, vs) -> vs.forEach(v -> hs.item(i -> i.name(k).value(v))));
-            });
+                encodeHeader(headers, ":status", status(exchange.getResponseCode()));
+            }
+
+            for (Map.Entry<String, List<String>> entry : exchange.getResponseHeaders().entrySet())
+            {
+                final String name = entry.getKey();
+
+                for (String value : entry.getValue())
+                {
+                    encodeHeader(headers, name, value);
+                }
+            }
+        }
+
+        private void encodeHeader(
+            ListFW.Builder<HttpHeaderFW.Builder, HttpHeaderFW> headers,
+            String name,
+            String value)
+        {
+            this.headerName = name;
+            this.headerValue = value;
+            headers.item(encodeHeader);
+        }
+
+        private void encodeHeader(
+            HttpHeaderFW.Builder header)
+        {
+            header.name(headerName).value(headerValue);
         }
 
-        private void doHttpEnd(
-            HttpExchange exchange)
+        private void doResponseFlush()
         {
-            target.doHttpEnd(targetId);
+            if (!responseDone && responseBody.flushFrames())
+            {
+                if (recording != null)
+                {
+                    cache.commit(recording, System.currentTimeMillis());
+                    recording = null;
+                }
+
+                recordResponse();
+                onResponseDone();
+            }
+        }
+
+        private void recordResponse()
+        {
+            final int status = cached != null ? cached.status() : exchange.getResponseCode();
+            final long latency = System.nanoTime() - beginAt;
+
+            if (route != null)
+            {
+                route.onResponse(status, latency);
+                route.bytesOut().add(responseBody.flushed());
+            }
+            counters.recordLatency(status, latency);
+        }
+
+        private void recordReset()
+        {
+            if (route != null && !responseDone)
+            {
+                route.resets().increment();
+                route.bytesOut().add(responseBody.flushed());
+            }
         }
 
         private void processData(
@@ -259,11 +1097,10 @@ public final class SourceInputStreamFactory
             int index,
             int length)
         {
-
             dataRO.wrap(buffer, index, index + length);
 
-            OctetsFW payload = dataRO.payload();
-            window -= dataRO.length();
+            final OctetsFW payload = dataRO.payload();
+            window -= payload.sizeof();
 
             if (window < 0)
             {
@@ -271,7 +1108,16 @@ public final class SourceInputStreamFactory
             }
             else
             {
-                target.doData(targetId, payload);
+                requestBody.onData(payload);
+                if (route != null)
+                {
+                    route.bytesIn().add(payload.sizeof());
+                }
+
+                if (deferred && window == 0)
+                {
+                    handleDeferred();
+                }
             }
         }
 
@@ -282,57 +1128,37 @@ public final class SourceInputStreamFactory
         {
             endRO.wrap(buffer, index, index + length);
 
-            target.removeThrottle(targetId);
-            source.removeStream(sourceId);
-        }
+            requestBody.onEnd();
 
-        private void handleThrottle(
-            int msgTypeId,
-            MutableDirectBuffer buffer,
-            int index,
-            int length)
-        {
-            throttleState.onMessage(msgTypeId, buffer, index, length);
+            this.streamState = this::afterEnd;
+
+            if (deferred)
+            {
+                handleDeferred();
+            }
+
+            onRequestDone();
         }
 
-        private void throttleNextThenSkipWindow(
-            int msgTypeId,
-            DirectBuffer buffer,
-            int index,
-            int length)
+        private void doRequestWindow()
         {
-            switch (msgTypeId)
+            final int credit = requestBody.takeCredit();
+
+            if (credit > 0)
             {
-            case WindowFW.TYPE_ID:
-                processNextThenSkipWindow(buffer, index, length);
-                break;
-            case ResetFW.TYPE_ID:
-                processReset(buffer, index, length);
-                break;
-            default:
-                // ignore
-                break;
+                window += credit;
+                source.doWindow(sourceId, credit);
             }
         }
 
-        private void throttleSkipNextWindow(
+        private void handleThrottle(
             int msgTypeId,
-            DirectBuffer buffer,
+            MutableDirectBuffer buffer,
             int index,
             int length)
         {
-            switch (msgTypeId)
-            {
-            case WindowFW.TYPE_ID:
-                processSkipNextWindow(buffer, index, length);
-                break;
-            case ResetFW.TYPE_ID:
-                processReset(buffer, index, length);
-                break;
-            default:
-                // ignore
-                break;
-            }
+            lastActive = now;
+            throttleState.onMessage(msgTypeId, buffer, index, length);
         }
 
         private void throttleNextWindow(
@@ -355,16 +1181,6 @@ public final class SourceInputStreamFactory
             }
         }
 
-        private void processSkipNextWindow(
-            DirectBuffer buffer,
-            int index,
-            int length)
-        {
-            windowRO.wrap(buffer, index, index + length);
-
-            throttleState = this::throttleNextWindow;
-        }
-
         private void processNextWindow(
             DirectBuffer buffer,
             int index,
@@ -374,23 +1190,8 @@ public final class SourceInputStreamFactory
 
             final int update = windowRO.update();
 
-            window += update;
-            source.doWindow(sourceId, update);
-        }
-
-        private void processNextThenSkipWindow(
-            DirectBuffer buffer,
-            int index,
-            int length)
-        {
-            windowRO.wrap(buffer, index, index + length);
-
-            final int update = windowRO.update();
-
-            window += update;
-            source.doWindow(sourceId, update);
-
-            throttleState = this::throttleSkipNextWindow;
+            responseBody.onWindow(update);
+            doResponseFlush();
         }
 
         private void processReset(
@@ -400,7 +1201,19 @@ public final class SourceInputStreamFactory
         {
             resetRO.wrap(buffer, index, index + length);
 
-            source.doReset(sourceId);
+            responseBody.onReset();
+            abandonRecording();
+            recordReset();
+
+            if (!requestDone)
+            {
+                requestBody.onReset();
+                source.doReset(sourceId);
+                this.streamState = this::afterEnd;
+            }
+
+            onRequestDone();
+            onResponseDone();
         }
     }
 }
@@ -18,34 +18,45 @@ package org.reaktivity.reaktive.httpserver.internal.router;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.LongFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.agrona.CloseHelper;
 import org.reaktivity.nukleus.Nukleus;
 import org.reaktivity.nukleus.Reaktive;
 import org.reaktivity.reaktive.httpserver.internal.Context;
 import org.reaktivity.reaktive.httpserver.internal.Resolver;
 import org.reaktivity.reaktive.httpserver.internal.routable.Routable;
-
-import com.sun.net.httpserver.HttpContext;
+import org.reaktivity.reaktive.httpserver.internal.routable.SharedTarget;
 
 @Reaktive
-@SuppressWarnings("restriction")
 public final class Router extends Nukleus.Composite
 {
     private static final Pattern SOURCE_NAME = Pattern.compile("([^#]+).*");
 
     private final Context context;
     private final Map<String, Routable> routables;
+    private final Map<String, Worker> workersByRoutableName;
+    private final Worker[] workers;
+    private final SharedTarget.Registry sharedTargets;
 
-    private LongFunction<HttpContext> supplyContext;
+    private Resolver resolver;
+    private int nextWorker;
 
     public Router(
         Context context)
     {
         this.context = context;
         this.routables = new HashMap<>();
+        this.workersByRoutableName = new HashMap<>();
+        this.workers = new Worker[context.workerCount() > 1 ? context.workerCount() : 0];
+        this.sharedTargets = workers.length != 0 ? new SharedTarget.Registry(context) : null;
+
+        for (int i = 0; i < workers.length; i++)
+        {
+            workers[i] = new Worker(context, i);
+            workers[i].start();
+        }
     }
 
     @Override
@@ -57,22 +68,85 @@ public final class Router extends Nukleus.Composite
     public void setResolver(
         Resolver resolver)
     {
-        this.supplyContext = resolver::resolve;
+        this.resolver = resolver;
     }
 
     public void onReadable(
         Path sourcePath)
     {
         String sourceName = source(sourcePath);
-        Routable routable = routables.computeIfAbsent(sourceName, this::newRoutable);
         String partitionName = sourcePath.getFileName().toString();
-        routable.onReadable(partitionName);
+        String routableName = routableName(sourceName, partitionName);
+        Routable routable = routables.computeIfAbsent(routableName, name -> newRoutable(sourceName, name));
+        Worker worker = workersByRoutableName.get(routableName);
+
+        if (worker != null)
+        {
+            worker.onReadable(routable, partitionName);
+        }
+        else
+        {
+            routable.onReadable(partitionName);
+        }
     }
 
     public void onExpired(
         Path sourcePath)
     {
-        // TODO:
+        String sourceName = source(sourcePath);
+        String partitionName = sourcePath.getFileName().toString();
+        String routableName = routableName(sourceName, partitionName);
+        Routable routable = routables.get(routableName);
+
+        if (routable != null)
+        {
+            Worker worker = workersByRoutableName.remove(routableName);
+
+            if (worker != null)
+            {
+                // sharded routables have a single partition
+                routables.remove(routableName);
+                worker.onExpired(routable, partitionName);
+            }
+            else
+            {
+                routable.onExpired(partitionName);
+
+                if (routable.isEmpty())
+                {
+                    routables.remove(routableName);
+                    CloseHelper.quietClose(exclude(routable));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        for (Worker worker : workers)
+        {
+            worker.close();
+        }
+
+        super.close();
+    }
+
+    int routableCount()
+    {
+        return routables.size() + workersByRoutableName.size();
+    }
+
+    int workerRoutableCount()
+    {
+        int routableCount = 0;
+
+        for (Worker worker : workers)
+        {
+            routableCount += worker.routableCount();
+        }
+
+        return routableCount;
     }
 
     private static String source(
@@ -89,9 +163,31 @@ public final class Router extends Nukleus.Composite
         }
     }
 
+    // with workers, each source partition gets its own routable, sharing the target of its source
+    private String routableName(
+        String sourceName,
+        String partitionName)
+    {
+        return workers.length != 0 ? partitionName : sourceName;
+    }
+
     private Routable newRoutable(
-        String sourceName)
+        String sourceName,
+        String routableName)
     {
-        return include(new Routable(context, sourceName, supplyContext));
+        final Routable routable = new Routable(context, sourceName, routableName, resolver, sharedTargets);
+
+        if (workers.length != 0)
+        {
+            final Worker worker = workers[nextWorker++ % workers.length];
+            workersByRoutableName.put(routableName, worker);
+            worker.assign(routable);
+        }
+        else
+        {
+            include(routable);
+        }
+
+        return routable;
     }
 }
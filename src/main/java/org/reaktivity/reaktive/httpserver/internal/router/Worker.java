@@ -0,0 +1,170 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver.internal.router;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.function.Consumer;
+
+import org.agrona.CloseHelper;
+import org.agrona.ErrorHandler;
+import org.agrona.LangUtil;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
+import org.reaktivity.nukleus.Nukleus;
+import org.reaktivity.reaktive.httpserver.internal.Context;
+import org.reaktivity.reaktive.httpserver.internal.routable.Routable;
+
+final class Worker extends Nukleus.Composite implements Agent
+{
+    private static final int COMMAND_QUEUE_CAPACITY = 1024;
+
+    private final String name;
+    private final ManyToOneConcurrentArrayQueue<Runnable> commands;
+    private final Consumer<Runnable> executeCommand;
+    private final AgentRunner runner;
+
+    private volatile int routableCount;
+
+    Worker(
+        Context context,
+        int index)
+    {
+        this.name = String.format("worker#%d", index);
+        this.commands = new ManyToOneConcurrentArrayQueue<>(COMMAND_QUEUE_CAPACITY);
+        this.executeCommand = Runnable::run;
+
+        IdleStrategy idleStrategy = context.idleStrategy();
+        if (idleStrategy == null)
+        {
+            idleStrategy = new BackoffIdleStrategy(64, 64, MICROSECONDS.toNanos(64), MILLISECONDS.toNanos(1));
+        }
+
+        ErrorHandler errorHandler = context.errorHandler();
+        if (errorHandler == null)
+        {
+            errorHandler = ex -> ex.printStackTrace(System.err);
+        }
+
+        this.runner = new AgentRunner(idleStrategy, errorHandler, null, this);
+    }
+
+    @Override
+    public String name()
+    {
+        return name;
+    }
+
+    @Override
+    public String roleName()
+    {
+        return String.format("httpserver-%s", name);
+    }
+
+    @Override
+    public int doWork() throws Exception
+    {
+        return process();
+    }
+
+    @Override
+    public int process()
+    {
+        int workCount = 0;
+
+        workCount += commands.drain(executeCommand);
+        workCount += super.process();
+
+        return workCount;
+    }
+
+    @Override
+    public void onClose()
+    {
+        try
+        {
+            super.close();
+        }
+        catch (Exception ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        runner.close();
+    }
+
+    void start()
+    {
+        final Thread thread = new Thread(runner, roleName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void execute(
+        Runnable command)
+    {
+        while (!commands.offer(command))
+        {
+            Thread.yield();
+        }
+    }
+
+    void onReadable(
+        Routable routable,
+        String partitionName)
+    {
+        execute(() -> routable.onReadable(partitionName));
+    }
+
+    void onExpired(
+        Routable routable,
+        String partitionName)
+    {
+        execute(() ->
+        {
+            routable.onExpired(partitionName);
+
+            if (routable.isEmpty())
+            {
+                CloseHelper.quietClose(exclude(routable));
+                routableCount--;
+            }
+        });
+    }
+
+    void assign(
+        Routable routable)
+    {
+        execute(() ->
+        {
+            include(routable);
+            routableCount++;
+        });
+    }
+
+    int routableCount()
+    {
+        return routableCount;
+    }
+}
@@ -19,8 +19,10 @@ import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 import static java.util.Arrays.stream;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.Path;
 import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchEvent;
@@ -28,12 +30,12 @@ import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 
 import org.agrona.LangUtil;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
 import org.reaktivity.nukleus.Nukleus;
 import org.reaktivity.nukleus.Reaktive;
 import org.reaktivity.reaktive.httpserver.internal.Context;
@@ -42,13 +44,19 @@ import org.reaktivity.reaktive.httpserver.internal.router.Router;
 @Reaktive
 public final class Watcher implements Nukleus
 {
+    private static final int EVENT_QUEUE_CAPACITY = 1024;
+    private static final int EVENTS_PER_PROCESS = 64;
+    private static final long POLL_TIMEOUT_MILLIS = 100L;
+
     private final WatchService service;
     private final Path streamsPath;
     private final Set<Path> sourcePaths;
     private final Consumer<WatchEvent<?>> handleEvent;
+    private final ManyToOneConcurrentArrayQueue<Runnable> events;
 
     private Router router;
-    private WatchKey streamsKey;
+    private Thread thread;
+    private volatile boolean running;
 
     public Watcher(
         Context context)
@@ -56,6 +64,7 @@ public final class Watcher implements Nukleus
         this.service = context.watchService();
         this.streamsPath = context.streamsPath();
         this.sourcePaths = new HashSet<>();
+        this.events = new ManyToOneConcurrentArrayQueue<>(EVENT_QUEUE_CAPACITY);
 
         Map<WatchEvent.Kind<?>, Consumer<WatchEvent<?>>> handlerMap = new HashMap<>();
         handlerMap.put(StandardWatchEventKinds.OVERFLOW, this::handleOverflow);
@@ -79,17 +88,15 @@ public final class Watcher implements Nukleus
     @Override
     public int process()
     {
-        registerIfNecessary();
+        startIfNecessary();
 
         int workCount = 0;
 
-        WatchKey key = service.poll();
-        if (key != null && key.isValid())
+        Runnable event;
+        while (workCount < EVENTS_PER_PROCESS && (event = events.poll()) != null)
         {
-            List<WatchEvent<?>> events = key.pollEvents();
-            workCount += events.size();
-            events.forEach(handleEvent);
-            key.reset();
+            event.run();
+            workCount++;
         }
 
         return workCount;
@@ -98,7 +105,61 @@ public final class Watcher implements Nukleus
     @Override
     public void close() throws Exception
     {
-        this.streamsKey = null;
+        final Thread thread = this.thread;
+
+        if (thread != null)
+        {
+            this.running = false;
+            thread.interrupt();
+            thread.join();
+            this.thread = null;
+        }
+    }
+
+    private void startIfNecessary()
+    {
+        if (thread == null)
+        {
+            running = true;
+            thread = new Thread(this::run, "httpserver-watcher");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.start();
+        }
+    }
+
+    private void run()
+    {
+        try
+        {
+            register();
+
+            while (running)
+            {
+                WatchKey key = service.poll(POLL_TIMEOUT_MILLIS, MILLISECONDS);
+                if (key != null && key.isValid())
+                {
+                    key.pollEvents().forEach(handleEvent);
+                    key.reset();
+                }
+            }
+        }
+        catch (InterruptedException | ClosedWatchServiceException ex)
+        {
+            // shutdown
+        }
+        catch (IOException ex)
+        {
+            // rethrown from process() so the failure reaches the caller's error handler
+            dispatch(() -> LangUtil.rethrowUnchecked(ex));
+        }
+    }
+
+    private void register() throws IOException
+    {
+        streamsPath.toFile().mkdirs();
+        streamsPath.register(service, ENTRY_CREATE, ENTRY_DELETE, OVERFLOW);
+        syncWithFileSystem();
     }
 
     private void handleCreate(
@@ -113,7 +174,7 @@ public final class Watcher implements Nukleus
     {
         if (sourcePaths.add(sourcePath))
         {
-            router.onReadable(sourcePath);
+            dispatch(() -> router.onReadable(sourcePath));
         }
     }
 
@@ -129,7 +190,7 @@ public final class Watcher implements Nukleus
     {
         if (sourcePaths.remove(sourcePath))
         {
-            router.onExpired(sourcePath);
+            dispatch(() -> router.onExpired(sourcePath));
         }
     }
 
@@ -145,18 +206,18 @@ public final class Watcher implements Nukleus
         // ignore
     }
 
-    private void registerIfNecessary()
+    private void dispatch(
+        Runnable event)
     {
-        if (streamsKey == null)
+        while (!events.offer(event))
         {
             try
             {
-                streamsPath.toFile().mkdirs();
-                streamsKey = streamsPath.register(service, ENTRY_CREATE, ENTRY_DELETE, OVERFLOW);
-                syncWithFileSystem();
+                MILLISECONDS.sleep(1L);
             }
-            catch (IOException ex)
+            catch (InterruptedException ex)
             {
+                Thread.currentThread().interrupt();
                 LangUtil.rethrowUnchecked(ex);
             }
         }
@@ -164,7 +225,15 @@ public final class Watcher implements Nukleus
 
     private void syncWithFileSystem()
     {
-        sourcePaths.stream().filter(p -> !p.toFile().exists()).forEach(this::handleDeletePath);
-        stream(streamsPath.toFile().listFiles()).map(f -> f.toPath()).forEach(this::handleCreatePath);
+        Set<Path> deletedPaths = new HashSet<>(sourcePaths);
+        Path[] existingPaths = stream(streamsPath.toFile().listFiles()).map(f -> f.toPath().getFileName()).toArray(Path[]::new);
+
+        for (Path existingPath : existingPaths)
+        {
+            deletedPaths.remove(existingPath);
+        }
+
+        deletedPaths.forEach(this::handleDeletePath);
+        stream(existingPaths).forEach(this::handleCreatePath);
     }
 }
@@ -16,18 +16,39 @@
 package org.reaktivity.reaktive.httpserver;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
 import static org.jmock.lib.script.ScriptedAction.perform;
+import static org.junit.Assert.assertEquals;
 import static org.junit.rules.RuleChain.outerRule;
 import static org.reaktivity.reaktive.httpserver.test.HttpRequestHeadersMatcher.hasRequestHeader;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.jmock.Expectations;
 import org.jmock.integration.junit4.JUnitRuleMockery;
 import org.jmock.lib.concurrent.Synchroniser;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TemporaryFolder;
 import org.junit.rules.TestRule;
 import org.junit.rules.Timeout;
 import org.kaazing.k3po.junit.annotation.Specification;
@@ -35,11 +56,14 @@ import org.kaazing.k3po.junit.rules.K3poRule;
 import org.reaktivity.reaktive.httpserver.test.HttpServerRule;
 import org.reaktivity.specification.nukleus.NukleusRule;
 
+import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
 @SuppressWarnings("restriction")
 public class MessageFormatIT
 {
+    private static final long STATIC_FILE_LAST_MODIFIED = 1483228800000L;
+
     private final K3poRule k3po = new K3poRule();
 
     private final TestRule timeout = new DisableOnDebug(new Timeout(5, SECONDS));
@@ -61,6 +85,9 @@ public class MessageFormatIT
         setThreadingPolicy(new Synchroniser());
     } };
 
+    @Rule
+    public final TemporaryFolder files = new TemporaryFolder();
+
     @Rule
     public final TestRule chain = outerRule(k3po).around(nukleus).around(server).around(timeout);
 
@@ -82,4 +109,414 @@ public class MessageFormatIT
         server.handler("/", handler);
         k3po.finish();
     }
+
+    @Test
+    @Specification({
+        "inbound.should.accept.request.body/request" })
+    public void inboundShouldAcceptRequestBody()
+            throws Exception
+    {
+        CompletableFuture<String> requestBody = new CompletableFuture<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try
+        {
+            server.executor(executor);
+            server.handler("/", exchange ->
+            {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (InputStream input = exchange.getRequestBody())
+                {
+                    byte[] buffer = new byte[4];
+                    for (int length = input.read(buffer); length != -1; length = input.read(buffer))
+                    {
+                        bytes.write(buffer, 0, length);
+                    }
+                }
+                requestBody.complete(new String(bytes.toByteArray(), UTF_8));
+                exchange.sendResponseHeaders(200, -1L);
+            });
+
+            k3po.finish();
+
+            assertEquals("Hello, world", requestBody.get());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.accept.request.body.beyond.window/request" })
+    public void inboundShouldAcceptRequestBodyBeyondWindow()
+            throws Exception
+    {
+        CompletableFuture<Integer> requestLength = new CompletableFuture<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try
+        {
+            server.executor(executor);
+            server.handler("/", exchange ->
+            {
+                int length = 0;
+                try (InputStream input = exchange.getRequestBody())
+                {
+                    byte[] buffer = new byte[1024];
+                    for (int read = input.read(buffer); read != -1; read = input.read(buffer))
+                    {
+                        length += read;
+                    }
+                }
+                requestLength.complete(length);
+                exchange.sendResponseHeaders(200, -1L);
+            });
+
+            k3po.finish();
+
+            assertEquals(81920, requestLength.get().intValue());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.accept.request.body/request" })
+    public void inboundShouldAcceptRequestBodyWithoutExecutor()
+            throws Exception
+    {
+        CompletableFuture<String> requestBody = new CompletableFuture<>();
+
+        server.handler("/", exchange ->
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (InputStream input = exchange.getRequestBody())
+            {
+                byte[] buffer = new byte[4];
+                for (int length = input.read(buffer); length != -1; length = input.read(buffer))
+                {
+                    bytes.write(buffer, 0, length);
+                }
+            }
+            requestBody.complete(new String(bytes.toByteArray(), UTF_8));
+            exchange.sendResponseHeaders(200, -1L);
+        });
+
+        k3po.finish();
+
+        assertEquals("Hello, world", requestBody.get());
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.accept.request.body.beyond.window/request" })
+    public void inboundShouldDiscardUnreadRequestBodyBeyondWindow()
+            throws Exception
+    {
+        AtomicInteger handled = new AtomicInteger();
+
+        server.handler("/", exchange ->
+        {
+            handled.incrementAndGet();
+            exchange.sendResponseHeaders(200, -1L);
+            exchange.close();
+        });
+
+        k3po.finish();
+
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.match.longest.prefix/request" })
+    public void inboundShouldMatchLongestPrefix()
+            throws Exception
+    {
+        HttpHandler rootHandler = mockery.mock(HttpHandler.class, "root");
+        HttpHandler apiHandler = mockery.mock(HttpHandler.class, "api");
+        HttpHandler itemsHandler = mockery.mock(HttpHandler.class, "items");
+        mockery.checking(new Expectations()
+        { {
+            never(rootHandler);
+            never(apiHandler);
+            oneOf(itemsHandler).handle(with(any(HttpExchange.class)));
+            will(perform("$0.sendResponseHeaders(200, -1L); return;"));
+        } });
+
+        server.handler("/", rootHandler);
+        server.handler("/api", apiHandler);
+        server.handler("/api/items", itemsHandler);
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.serve.static.file/request" })
+    public void inboundShouldServeStaticFile()
+            throws Exception
+    {
+        Path root = files.newFolder("static").toPath();
+        Files.write(root.resolve("hello.txt"), "Hello, world".getBytes(UTF_8));
+
+        server.handler("/static", new StaticFileHandler(root, 1024L * 1024L));
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.serve.static.file.range/request" })
+    public void inboundShouldServeStaticFileRange()
+            throws Exception
+    {
+        Path root = files.newFolder("static").toPath();
+        Files.write(root.resolve("hello.txt"), "Hello, world".getBytes(UTF_8));
+
+        server.handler("/static", new StaticFileHandler(root, 1024L * 1024L));
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.serve.static.file.not.modified.etag/request" })
+    public void inboundShouldServeStaticFileNotModifiedEtag()
+            throws Exception
+    {
+        server.handler("/static", new StaticFileHandler(staticFiles(), 1024L * 1024L));
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.serve.static.file.not.modified.since/request" })
+    public void inboundShouldServeStaticFileNotModifiedSince()
+            throws Exception
+    {
+        server.handler("/static", new StaticFileHandler(staticFiles(), 1024L * 1024L));
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.reject.static.file.range.unsatisfiable/request" })
+    public void inboundShouldRejectStaticFileRangeUnsatisfiable()
+            throws Exception
+    {
+        server.handler("/static", new StaticFileHandler(staticFiles(), 1024L * 1024L));
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.serve.static.file.if.range.mismatch/request" })
+    public void inboundShouldServeStaticFileIfRangeMismatch()
+            throws Exception
+    {
+        server.handler("/static", new StaticFileHandler(staticFiles(), 1024L * 1024L));
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.serve.static.file.suffix.range/request" })
+    public void inboundShouldServeStaticFileSuffixRange()
+            throws Exception
+    {
+        server.handler("/static", new StaticFileHandler(staticFiles(), 1024L * 1024L));
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.send.response.template/request" })
+    public void inboundShouldSendResponseTemplate()
+            throws Exception
+    {
+        ResponseTemplate template = new ResponseTemplate.Builder()
+                .status(200)
+                .header("Content-Type", "text/plain")
+                .header("Content-Length", "12")
+                .build();
+
+        server.handler("/", exchange ->
+        {
+            ((ReaktiveHttpExchange) exchange).sendResponseHeaders(template, 12L);
+            try (OutputStream output = exchange.getResponseBody())
+            {
+                output.write("Hello, world".getBytes(UTF_8));
+            }
+        });
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.fragment.oversized.response.data/request" })
+    public void inboundShouldFragmentOversizedResponseData()
+            throws Exception
+    {
+        byte[] body = new byte[256 * 1024];
+        Arrays.fill(body, (byte) 'a');
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try
+        {
+            server.executor(executor);
+            server.handler("/", exchange ->
+            {
+                exchange.getResponseHeaders().set("Content-Length", Integer.toString(body.length));
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream output = exchange.getResponseBody())
+                {
+                    output.write(body);
+                }
+            });
+
+            k3po.finish();
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.write.response.direct.buffers/request" })
+    public void inboundShouldWriteResponseDirectBuffers()
+            throws Exception
+    {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try
+        {
+            server.executor(executor);
+            server.handler("/", exchange ->
+            {
+                ByteBuffer hello = ByteBuffer.allocateDirect(7);
+                hello.put("Hello, ".getBytes(UTF_8)).flip();
+                DirectBuffer world = new UnsafeBuffer("world".getBytes(UTF_8));
+
+                exchange.getResponseHeaders().set("Content-Length", "12");
+                exchange.sendResponseHeaders(200, 12L);
+                ((ReaktiveHttpExchange) exchange).writeResponse(hello);
+                ((ReaktiveHttpExchange) exchange).writeResponse(world, 0, world.capacity());
+                exchange.close();
+            });
+
+            k3po.finish();
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.serve.cached.response/request" })
+    public void inboundShouldServeCachedResponse()
+            throws Exception
+    {
+        AtomicInteger handled = new AtomicInteger();
+
+        server.handler("/cached", exchange ->
+        {
+            handled.incrementAndGet();
+            respond(exchange, "Hello");
+        }, new ResponseCache.Builder()::attach);
+
+        k3po.finish();
+
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.not.cache.response.with.set.cookie/request" })
+    public void inboundShouldNotCacheResponseWithSetCookie()
+            throws Exception
+    {
+        AtomicInteger handled = new AtomicInteger();
+
+        server.handler("/cached", exchange ->
+        {
+            handled.incrementAndGet();
+            exchange.getResponseHeaders().set("Set-Cookie", "id=" + handled.get());
+            respond(exchange, "Hello");
+        }, new ResponseCache.Builder()::attach);
+
+        k3po.finish();
+
+        assertEquals(2, handled.get());
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.vary.cached.response/request" })
+    public void inboundShouldVaryCachedResponse()
+            throws Exception
+    {
+        AtomicInteger handled = new AtomicInteger();
+
+        server.handler("/cached", exchange ->
+        {
+            handled.incrementAndGet();
+            exchange.getResponseHeaders().set("Vary", "Accept-Language");
+            respond(exchange, exchange.getRequestHeaders().getFirst("Accept-Language"));
+        }, new ResponseCache.Builder().vary("Accept-Language")::attach);
+
+        k3po.finish();
+
+        assertEquals(2, handled.get());
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.evict.least.recently.used.cached.response/request" })
+    public void inboundShouldEvictLeastRecentlyUsedCachedResponse()
+            throws Exception
+    {
+        List<String> handled = new CopyOnWriteArrayList<>();
+
+        server.handler("/cached", exchange ->
+        {
+            String path = exchange.getRequestURI().getPath();
+            handled.add(path);
+            respond(exchange, path.substring(path.lastIndexOf('/') + 1));
+        }, new ResponseCache.Builder().capacity(2048).maxEntryLength(1024)::attach);
+
+        k3po.finish();
+
+        assertEquals(asList("/cached/a", "/cached/b", "/cached/c", "/cached/b"), handled);
+    }
+
+    private static void respond(
+        HttpExchange exchange,
+        String body) throws IOException
+    {
+        byte[] bytes = body.getBytes(UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Length", Integer.toString(bytes.length));
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream output = exchange.getResponseBody())
+        {
+            output.write(bytes);
+        }
+    }
+
+    private Path staticFiles()
+            throws Exception
+    {
+        Path root = files.newFolder("static").toPath();
+        Path file = Files.write(root.resolve("hello.txt"), "Hello, world".getBytes(UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(STATIC_FILE_LAST_MODIFIED));
+        return root;
+    }
 }
@@ -0,0 +1,47 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ResponseTemplateTest
+{
+    @Test
+    public void shouldSizeExtensionFromEncodedHeaderValue()
+    {
+        final String value = new String(new char[85]).replace('\0', '\u20ac');
+
+        ResponseTemplate template = new ResponseTemplate.Builder()
+                .header("x-currency", value)
+                .build();
+
+        assertEquals(255, value.getBytes(UTF_8).length);
+        assertEquals(value, template.headerValue(1));
+        assertTrue(template.extension().capacity() > 255);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectHeaderValueTooLongWhenEncoded()
+    {
+        final String value = new String(new char[128]).replace('\0', '\u00e9');
+
+        new ResponseTemplate.Builder().header("x-name", value);
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.junit.rules.RuleChain.outerRule;
+import static org.reaktivity.reaktive.httpserver.internal.HttpServerImpl.VIRTUAL_THREADS_PROPERTY_NAME;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.kaazing.k3po.junit.annotation.Specification;
+import org.kaazing.k3po.junit.rules.K3poRule;
+import org.reaktivity.reaktive.httpserver.test.HttpServerRule;
+import org.reaktivity.specification.nukleus.NukleusRule;
+
+@SuppressWarnings("restriction")
+public class VirtualThreadsIT
+{
+    private final K3poRule k3po = new K3poRule();
+
+    private final TestRule timeout = new DisableOnDebug(new Timeout(5, SECONDS));
+
+    private final NukleusRule nukleus = new NukleusRule()
+        .directory("target/nukleus-itests")
+        .streams("http", "tcp#any")
+        .streams("httpserver", "http#tcp")
+        .streams("http", "httpserver#http")
+        .streams("tcp", "http#httpserver");
+
+    private final HttpServerRule server = new HttpServerRule()
+        .directory("target/nukleus-itests")
+        .systemProperty(VIRTUAL_THREADS_PROPERTY_NAME, "true")
+        .init(new InetSocketAddress("localhost", 8080), 0);
+
+    @Rule
+    public final TestRule chain = outerRule(k3po).around(nukleus).around(server).around(timeout);
+
+    @BeforeClass
+    public static void assumeVirtualThreads()
+    {
+        assumeTrue("virtual threads not supported", isVirtualThreadsSupported());
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.send.response.template/request" })
+    public void inboundShouldHandleOnVirtualThread()
+            throws Exception
+    {
+        CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+
+        server.handler("/", exchange ->
+        {
+            virtual.complete(isVirtual(Thread.currentThread()));
+
+            exchange.getResponseHeaders().set("Content-Type", "text/plain");
+            exchange.getResponseHeaders().set("Content-Length", "12");
+            exchange.sendResponseHeaders(200, 12L);
+            try (OutputStream output = exchange.getResponseBody())
+            {
+                output.write("Hello, world".getBytes(UTF_8));
+            }
+        });
+
+        k3po.finish();
+
+        assertTrue(virtual.get());
+        assertNull(server.executor());
+    }
+
+    private static boolean isVirtualThreadsSupported()
+    {
+        try
+        {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        }
+        catch (NoSuchMethodException ex)
+        {
+            return false;
+        }
+    }
+
+    private static boolean isVirtual(
+        Thread thread)
+    {
+        try
+        {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        }
+        catch (ReflectiveOperationException ex)
+        {
+            return false;
+        }
+    }
+}
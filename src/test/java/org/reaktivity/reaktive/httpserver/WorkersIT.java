@@ -0,0 +1,120 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.rules.RuleChain.outerRule;
+import static org.reaktivity.reaktive.httpserver.internal.Context.WORKER_COUNT_PROPERTY_NAME;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.kaazing.k3po.junit.annotation.Specification;
+import org.kaazing.k3po.junit.rules.K3poRule;
+import org.reaktivity.reaktive.httpserver.test.HttpServerRule;
+import org.reaktivity.specification.nukleus.NukleusRule;
+
+@SuppressWarnings("restriction")
+public class WorkersIT
+{
+    private final K3poRule k3po = new K3poRule();
+
+    private final TestRule timeout = new DisableOnDebug(new Timeout(5, SECONDS));
+
+    private final NukleusRule nukleus = new NukleusRule()
+        .directory("target/nukleus-itests")
+        .streams("http", "tcp#any")
+        .streams("httpserver", "http#tcp")
+        .streams("http", "httpserver#http")
+        .streams("tcp", "http#httpserver");
+
+    private final HttpServerRule server = new HttpServerRule()
+        .directory("target/nukleus-itests")
+        .systemProperty(WORKER_COUNT_PROPERTY_NAME, "2")
+        .init(new InetSocketAddress("localhost", 8080), 0);
+
+    @Rule
+    public final TestRule chain = outerRule(k3po).around(nukleus).around(server).around(timeout);
+
+    @Test
+    @Specification({
+        "inbound.should.send.response.template/request" })
+    public void inboundShouldSendResponse()
+            throws Exception
+    {
+        server.handler("/", exchange ->
+        {
+            exchange.getResponseHeaders().set("Content-Type", "text/plain");
+            exchange.getResponseHeaders().set("Content-Length", "12");
+            exchange.sendResponseHeaders(200, 12L);
+            try (OutputStream output = exchange.getResponseBody())
+            {
+                output.write("Hello, world".getBytes(UTF_8));
+            }
+        });
+
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "inbound.should.accept.request.body/request" })
+    public void inboundShouldAcceptRequestBody()
+            throws Exception
+    {
+        CompletableFuture<String> requestBody = new CompletableFuture<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try
+        {
+            server.executor(executor);
+            server.handler("/", exchange ->
+            {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (InputStream input = exchange.getRequestBody())
+                {
+                    byte[] buffer = new byte[4];
+                    for (int length = input.read(buffer); length != -1; length = input.read(buffer))
+                    {
+                        bytes.write(buffer, 0, length);
+                    }
+                }
+                requestBody.complete(new String(bytes.toByteArray(), UTF_8));
+                exchange.sendResponseHeaders(200, -1L);
+            });
+
+            k3po.finish();
+
+            assertEquals("Hello, world", requestBody.get());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver.internal;
+
+import static org.reaktivity.reaktive.httpserver.internal.layouts.CaptureLayout.DIRECTION_SOURCE;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.reaktivity.nukleus.Configuration;
+import org.reaktivity.reaktive.httpserver.internal.layouts.CaptureLayout;
+import org.reaktivity.reaktive.httpserver.internal.layouts.StreamsLayout;
+import org.reaktivity.reaktive.httpserver.internal.types.stream.BeginFW;
+import org.reaktivity.reaktive.httpserver.internal.types.stream.WindowFW;
+
+public final class FrameReplayer implements AutoCloseable
+{
+    public static final String SPEED_PROPERTY_NAME = "replay.speed";
+
+    private final BeginFW beginRO = new BeginFW();
+    private final WindowFW.Builder windowRW = new WindowFW.Builder();
+
+    private final MutableDirectBuffer frameBuffer = new UnsafeBuffer(new byte[1024]);
+
+    private final CaptureLayout capture;
+    private final Configuration config;
+    private final IdleStrategy idleStrategy;
+
+    private StreamsLayout source;
+    private Path targetPath;
+    private StreamsLayout target;
+    private double speed;
+    private long firstTimestamp;
+    private long startedAt;
+    private long replayed;
+
+    public FrameReplayer(
+        Path capturePath,
+        Configuration config)
+    {
+        this.capture = new CaptureLayout.Builder()
+                .path(capturePath)
+                .readonly(true)
+                .build();
+        this.config = config;
+        this.idleStrategy = new BackoffIdleStrategy(64L, 64L, 1000L, 100000L);
+    }
+
+    public long replay(
+        StreamsLayout source,
+        Path targetPath,
+        double speed)
+    {
+        this.source = source;
+        this.targetPath = targetPath;
+        this.speed = speed;
+        this.firstTimestamp = -1L;
+        this.replayed = 0L;
+
+        capture.read(this::onFrame);
+
+        return replayed;
+    }
+
+    @Override
+    public void close()
+    {
+        capture.close();
+
+        if (target != null)
+        {
+            target.close();
+        }
+    }
+
+    private void onFrame(
+        int direction,
+        long timestamp,
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        if (direction == DIRECTION_SOURCE)
+        {
+            if (firstTimestamp == -1L)
+            {
+                firstTimestamp = timestamp;
+                startedAt = System.nanoTime();
+            }
+
+            if (speed > 0.0)
+            {
+                final long dueAt = startedAt + (long) ((timestamp - firstTimestamp) / speed);
+
+                idleStrategy.reset();
+                while (System.nanoTime() < dueAt)
+                {
+                    idleStrategy.idle(drain());
+                }
+            }
+
+            idleStrategy.reset();
+            while (!source.streamsBuffer().write(msgTypeId, buffer, index, length))
+            {
+                idleStrategy.idle(drain());
+            }
+
+            replayed++;
+        }
+    }
+
+    // responses are drained and granted window so that the replayed streams are not stalled by back pressure
+    private int drain()
+    {
+        int workCount = source.throttleBuffer().read((t, b, i, l) -> {});
+
+        if (target == null && Files.exists(targetPath))
+        {
+            target = new StreamsLayout.Builder()
+                    .path(targetPath)
+                    .streamsCapacity(config.streamsBufferCapacity())
+                    .throttleCapacity(config.throttleBufferCapacity())
+                    .readonly(true)
+                    .build();
+        }
+
+        if (target != null)
+        {
+            workCount += target.streamsBuffer().read(this::handleResponse);
+        }
+
+        return workCount;
+    }
+
+    private void handleResponse(
+        int msgTypeId,
+        MutableDirectBuffer buffer,
+        int index,
+        int length)
+    {
+        if (msgTypeId == BeginFW.TYPE_ID)
+        {
+            final BeginFW begin = beginRO.wrap(buffer, index, index + length);
+            doWindow(begin.streamId(), config.streamsBufferCapacity() / 8);
+        }
+    }
+
+    private void doWindow(
+        long streamId,
+        int update)
+    {
+        final WindowFW window = windowRW.wrap(frameBuffer, 0, frameBuffer.capacity())
+                .streamId(streamId)
+                .update(update)
+                .build();
+
+        final RingBuffer throttle = target.throttleBuffer();
+        while (!throttle.write(window.typeId(), window.buffer(), window.offset(), window.sizeof()))
+        {
+            Thread.yield();
+        }
+    }
+
+    public static void main(
+        String[] args) throws Exception
+    {
+        if (args.length < 3)
+        {
+            System.err.println("usage: FrameReplayer <capture-file> <source-streams-file> <target-streams-file>");
+            System.exit(1);
+        }
+
+        final double speed = Double.parseDouble(System.getProperty(SPEED_PROPERTY_NAME, "1.0"));
+        final Configuration config = new Configuration(new Properties());
+
+        try (FrameReplayer replayer = new FrameReplayer(Paths.get(args[0]), config);
+             StreamsLayout source = new StreamsLayout.Builder()
+                     .path(Paths.get(args[1]))
+                     .streamsCapacity(config.streamsBufferCapacity())
+                     .throttleCapacity(config.throttleBufferCapacity())
+                     .readonly(true)
+                     .build())
+        {
+            final long replayed = replayer.replay(source, Paths.get(args[2]), speed);
+            System.out.format("replayed %d frames at speed %.2f%n", replayed, speed);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver.internal;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.reaktivity.reaktive.httpserver.internal.types.stream.HttpBeginExFW;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Fork(3)
+@Warmup(iterations = 5, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = SECONDS)
+@OutputTimeUnit(SECONDS)
+public class HttpExchangeBM
+{
+    private final HttpBeginExFW.Builder httpBeginExRW = new HttpBeginExFW.Builder();
+
+    private HttpExchangeImpl exchange;
+    private HttpContextImpl context;
+    private HttpBeginExFW beginEx;
+
+    @Setup
+    public void init()
+    {
+        final MutableDirectBuffer buffer = new UnsafeBuffer(new byte[1024]);
+
+        this.context = new HttpContextImpl(new HttpServerStub(), "/");
+        this.exchange = new HttpExchangeImpl();
+        this.beginEx = httpBeginExRW.wrap(buffer, 0, buffer.capacity())
+                .headers(hs ->
+                {
+                    hs.item(h -> h.name(":scheme").value("http"));
+                    hs.item(h -> h.name(":method").value("GET"));
+                    hs.item(h -> h.name(":path").value("/api/items/1?expand=true"));
+                    hs.item(h -> h.name(":authority").value("localhost:8080"));
+                    hs.item(h -> h.name("user-agent").value("benchmark"));
+                    hs.item(h -> h.name("accept").value("application/json"));
+                    hs.item(h -> h.name("accept-encoding").value("gzip, deflate"));
+                    hs.item(h -> h.name("content-type").value("application/json"));
+                })
+                .build();
+    }
+
+    @Benchmark
+    public String decodeHeader()
+    {
+        exchange.init(context, beginEx, null, null, null);
+        return exchange.getRequestHeaders().getFirst("Content-Type");
+    }
+
+    @Benchmark
+    public String decodeRequestLine()
+    {
+        exchange.init(context, beginEx, null, null, null);
+        return exchange.getRequestMethod() + exchange.getRequestURI().getPath();
+    }
+
+    @Benchmark
+    public int decodeAllHeaders()
+    {
+        exchange.init(context, beginEx, null, null, null);
+        return exchange.getRequestHeaders().size();
+    }
+
+    public static void main(
+        String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+                .include(HttpExchangeBM.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
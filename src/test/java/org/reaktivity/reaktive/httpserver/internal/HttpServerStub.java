@@ -0,0 +1,96 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver.internal;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executor;
+
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+@SuppressWarnings("restriction")
+final class HttpServerStub extends HttpServer
+{
+    private final InetSocketAddress address = new InetSocketAddress("localhost", 8080);
+
+    @Override
+    public void bind(
+        InetSocketAddress addr,
+        int backlog)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void start()
+    {
+    }
+
+    @Override
+    public void setExecutor(
+        Executor executor)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Executor getExecutor()
+    {
+        return null;
+    }
+
+    @Override
+    public void stop(
+        int delay)
+    {
+    }
+
+    @Override
+    public HttpContext createContext(
+        String path,
+        HttpHandler handler)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public HttpContext createContext(
+        String path)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void removeContext(
+        String path)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void removeContext(
+        HttpContext context)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public InetSocketAddress getAddress()
+    {
+        return address;
+    }
+}
@@ -0,0 +1,367 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.agrona.BitUtil.findNextPositivePowerOfTwo;
+import static org.reaktivity.nukleus.Configuration.DIRECTORY_PROPERTY_NAME;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.reaktivity.nukleus.Configuration;
+import org.reaktivity.reaktive.httpserver.internal.layouts.StreamsLayout;
+import org.reaktivity.reaktive.httpserver.internal.types.OctetsFW;
+import org.reaktivity.reaktive.httpserver.internal.types.stream.BeginFW;
+import org.reaktivity.reaktive.httpserver.internal.types.stream.DataFW;
+import org.reaktivity.reaktive.httpserver.internal.types.stream.EndFW;
+import org.reaktivity.reaktive.httpserver.internal.types.stream.HttpBeginExFW;
+import org.reaktivity.reaktive.httpserver.internal.types.stream.ResetFW;
+import org.reaktivity.reaktive.httpserver.internal.types.stream.WindowFW;
+
+@SuppressWarnings("restriction")
+public final class LoadGenerator implements AutoCloseable
+{
+    public static final String REQUESTS_PROPERTY_NAME = "loadgen.requests";
+    public static final String RATE_PROPERTY_NAME = "loadgen.rate";
+    public static final String IN_FLIGHT_PROPERTY_NAME = "loadgen.inflight";
+
+    private static final String SOURCE_PATH = "httpserver/streams/http#loadgen";
+    private static final String TARGET_PATH = "http/streams/httpserver#http";
+    private static final byte[] RESPONSE_BODY = "Hello, world".getBytes(UTF_8);
+    private static final double[] PERCENTILES = { 50.0, 90.0, 99.0, 99.9, 99.99 };
+
+    private final BeginFW beginRO = new BeginFW();
+    private final EndFW endRO = new EndFW();
+
+    private final BeginFW.Builder beginRW = new BeginFW.Builder();
+    private final DataFW.Builder dataRW = new DataFW.Builder();
+    private final EndFW.Builder endRW = new EndFW.Builder();
+    private final WindowFW.Builder windowRW = new WindowFW.Builder();
+    private final HttpBeginExFW.Builder httpBeginExRW = new HttpBeginExFW.Builder();
+
+    private final MutableDirectBuffer frameBuffer = new UnsafeBuffer(new byte[1024]);
+    private final MutableDirectBuffer extensionBuffer = new UnsafeBuffer(new byte[1024]);
+    private final DirectBuffer payloadBuffer = new UnsafeBuffer(RESPONSE_BODY);
+
+    private final Consumer<OctetsFW.Builder> setExtension = e -> e.set(extensionBuffer, 0, this.extensionLength);
+    private final Consumer<OctetsFW.Builder> setPayload = p -> p.set(payloadBuffer, 0, payloadBuffer.capacity());
+    private final Consumer<OctetsFW.Builder> resetExtension = e -> e.reset();
+
+    private final Path directory;
+    private final Configuration config;
+    private final HttpServerNukleus nukleus;
+    private final StreamsLayout source;
+    private final Long2LongHashMap correlationIdsByTargetId;
+    private final Thread reaktor;
+
+    private volatile boolean running;
+
+    private StreamsLayout target;
+    private int extensionLength;
+
+    private long[] intendedAt;
+    private long[] latencies;
+    private long start;
+    private long interval;
+    private int completed;
+    private int errors;
+
+    public LoadGenerator(
+        Path directory)
+    {
+        final Properties properties = new Properties();
+        properties.setProperty(DIRECTORY_PROPERTY_NAME, directory.toString());
+
+        this.directory = directory;
+        this.config = new Configuration(properties);
+        this.correlationIdsByTargetId = new Long2LongHashMap(-1L);
+
+        this.source = new StreamsLayout.Builder()
+                .path(directory.resolve(SOURCE_PATH))
+                .streamsCapacity(config.streamsBufferCapacity())
+                .throttleCapacity(config.throttleBufferCapacity())
+                .readonly(false)
+                .build();
+
+        final HttpContextTable contexts = new HttpContextTable();
+        contexts.add(new HttpServerStub(), "/").setHandler(exchange ->
+        {
+            exchange.sendResponseHeaders(200, RESPONSE_BODY.length);
+            try (OutputStream output = exchange.getResponseBody())
+            {
+                output.write(RESPONSE_BODY);
+            }
+        });
+
+        this.nukleus = (HttpServerNukleus) new HttpServerNukleusFactorySpi().create(config);
+        this.nukleus.resolver(contexts);
+
+        this.extensionLength = httpBeginExRW.wrap(extensionBuffer, 0, extensionBuffer.capacity())
+                .headers(hs ->
+                {
+                    hs.item(h -> h.name(":scheme").value("http"));
+                    hs.item(h -> h.name(":method").value("POST"));
+                    hs.item(h -> h.name(":path").value("/"));
+                    hs.item(h -> h.name(":authority").value("localhost:8080"));
+                    hs.item(h -> h.name("content-type").value("text/plain"));
+                    hs.item(h -> h.name("content-length").value(Integer.toString(payloadBuffer.capacity())));
+                })
+                .build()
+                .sizeof();
+
+        this.running = true;
+        this.reaktor = new Thread(this::runReaktor, "httpserver-loadgen");
+        this.reaktor.start();
+    }
+
+    public LoadGenerator run(
+        int requests,
+        int rate,
+        int inFlight) throws InterruptedException
+    {
+        awaitTarget();
+
+        this.intendedAt = new long[findNextPositivePowerOfTwo(inFlight)];
+        this.latencies = new long[requests];
+        this.interval = SECONDS.toNanos(1L) / rate;
+        this.start = System.nanoTime();
+        this.completed = 0;
+        this.errors = 0;
+
+        final RingBuffer streams = source.streamsBuffer();
+        final RingBuffer responses = target.streamsBuffer();
+        final RingBuffer throttle = source.throttleBuffer();
+        final int mask = intendedAt.length - 1;
+
+        int sent = 0;
+        while (completed + errors < requests)
+        {
+            final long now = System.nanoTime();
+
+            while (sent < requests && sent - (completed + errors) < intendedAt.length && start + sent * interval <= now)
+            {
+                final long streamId = sent + 1L;
+                intendedAt[(int) streamId & mask] = start + sent * interval;
+
+                if (!sendRequest(streams, streamId))
+                {
+                    break;
+                }
+
+                sent++;
+            }
+
+            responses.read(this::handleResponse);
+            throttle.read(this::handleThrottle);
+        }
+
+        return this;
+    }
+
+    public void print(
+        PrintStream out)
+    {
+        final long elapsed = System.nanoTime() - start;
+        final long[] sorted = Arrays.copyOf(latencies, completed);
+        Arrays.sort(sorted);
+
+        out.format("requests: %d, errors: %d, elapsed: %d ms%n", completed, errors, NANOSECONDS.toMillis(elapsed));
+        out.format("throughput: %.0f req/s%n", completed * (double) SECONDS.toNanos(1L) / elapsed);
+
+        if (sorted.length != 0)
+        {
+            for (double percentile : PERCENTILES)
+            {
+                final int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile / 100.0 * sorted.length) - 1);
+                out.format("latency p%s: %d us%n", percentile, NANOSECONDS.toMicros(sorted[Math.max(index, 0)]));
+            }
+
+            out.format("latency max: %d us%n", NANOSECONDS.toMicros(sorted[sorted.length - 1]));
+        }
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        running = false;
+        reaktor.join();
+
+        nukleus.close();
+        source.close();
+
+        if (target != null)
+        {
+            target.close();
+        }
+
+        IoUtil.delete(directory.toFile(), true);
+    }
+
+    private boolean sendRequest(
+        RingBuffer streams,
+        long streamId)
+    {
+        final BeginFW begin = beginRW.wrap(frameBuffer, 0, frameBuffer.capacity())
+                .streamId(streamId)
+                .referenceId(1L)
+                .correlationId(streamId)
+                .extension(setExtension)
+                .build();
+
+        if (!streams.write(begin.typeId(), begin.buffer(), begin.offset(), begin.sizeof()))
+        {
+            return false;
+        }
+
+        final DataFW data = dataRW.wrap(frameBuffer, 0, frameBuffer.capacity())
+                .streamId(streamId)
+                .payload(setPayload)
+                .extension(resetExtension)
+                .build();
+
+        while (!streams.write(data.typeId(), data.buffer(), data.offset(), data.sizeof()))
+        {
+            Thread.yield();
+        }
+
+        final EndFW end = endRW.wrap(frameBuffer, 0, frameBuffer.capacity())
+                .streamId(streamId)
+                .extension(resetExtension)
+                .build();
+
+        while (!streams.write(end.typeId(), end.buffer(), end.offset(), end.sizeof()))
+        {
+            Thread.yield();
+        }
+
+        return true;
+    }
+
+    private void handleResponse(
+        int msgTypeId,
+        MutableDirectBuffer buffer,
+        int index,
+        int length)
+    {
+        switch (msgTypeId)
+        {
+        case BeginFW.TYPE_ID:
+            final BeginFW begin = beginRO.wrap(buffer, index, index + length);
+            correlationIdsByTargetId.put(begin.streamId(), begin.correlationId());
+            doWindow(begin.streamId(), config.streamsBufferCapacity() / 8);
+            break;
+        case EndFW.TYPE_ID:
+            final EndFW end = endRO.wrap(buffer, index, index + length);
+            final long correlationId = correlationIdsByTargetId.remove(end.streamId());
+            if (correlationId != -1L)
+            {
+                final long latency = System.nanoTime() - intendedAt[(int) correlationId & (intendedAt.length - 1)];
+                latencies[completed++] = latency;
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    private void handleThrottle(
+        int msgTypeId,
+        MutableDirectBuffer buffer,
+        int index,
+        int length)
+    {
+        if (msgTypeId == ResetFW.TYPE_ID)
+        {
+            errors++;
+        }
+    }
+
+    private void doWindow(
+        long streamId,
+        int update)
+    {
+        final WindowFW window = windowRW.wrap(frameBuffer, 0, frameBuffer.capacity())
+                .streamId(streamId)
+                .update(update)
+                .build();
+
+        while (!target.throttleBuffer().write(window.typeId(), window.buffer(), window.offset(), window.sizeof()))
+        {
+            Thread.yield();
+        }
+    }
+
+    private void awaitTarget() throws InterruptedException
+    {
+        final Path path = directory.resolve(TARGET_PATH);
+
+        while (!Files.exists(path))
+        {
+            MILLISECONDS.sleep(10L);
+        }
+
+        if (target == null)
+        {
+            target = new StreamsLayout.Builder()
+                    .path(path)
+                    .streamsCapacity(config.streamsBufferCapacity())
+                    .throttleCapacity(config.throttleBufferCapacity())
+                    .readonly(true)
+                    .build();
+        }
+    }
+
+    private void runReaktor()
+    {
+        while (running)
+        {
+            if (nukleus.process() == 0)
+            {
+                Thread.yield();
+            }
+        }
+    }
+
+    public static void main(
+        String[] args) throws Exception
+    {
+        final int requests = Integer.getInteger(REQUESTS_PROPERTY_NAME, 1_000_000);
+        final int rate = Integer.getInteger(RATE_PROPERTY_NAME, 100_000);
+        final int inFlight = Integer.getInteger(IN_FLIGHT_PROPERTY_NAME, 1024);
+
+        final Path directory = Files.createTempDirectory("httpserver-loadgen");
+
+        try (LoadGenerator generator = new LoadGenerator(directory))
+        {
+            generator.run(requests, rate, inFlight).print(System.out);
+        }
+    }
+}
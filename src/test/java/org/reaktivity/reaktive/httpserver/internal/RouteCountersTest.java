@@ -0,0 +1,56 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.CountersManager;
+import org.junit.Test;
+
+public class RouteCountersTest
+{
+    @Test
+    public void shouldKeepShortPathInLabel()
+    {
+        assertEquals("route[/api/items]", RouteCounters.name("/api/items"));
+    }
+
+    @Test
+    public void shouldTruncateLongPathInLabel() throws Exception
+    {
+        final String path = "/" + new String(new char[200]).replace('\0', '\u00e9');
+        final String name = RouteCounters.name(path);
+
+        assertTrue(name.getBytes(StandardCharsets.UTF_8).length + ".latency.ge.4194304us".length() <= 124);
+        assertNotEquals(name, RouteCounters.name(path + "x"));
+
+        final CountersManager countersManager = new CountersManager(
+                new UnsafeBuffer(ByteBuffer.allocateDirect(64 * 1024)),
+                new UnsafeBuffer(ByteBuffer.allocateDirect(16 * 1024)));
+
+        try (RouteCounters route = new RouteCounters(countersManager, path, true))
+        {
+            route.requests().increment();
+            assertEquals(1L, route.requests().get());
+        }
+    }
+}
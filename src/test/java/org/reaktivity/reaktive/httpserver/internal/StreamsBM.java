@@ -0,0 +1,223 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.reaktivity.nukleus.Configuration.DIRECTORY_PROPERTY_NAME;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+import org.agrona.IoUtil;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.reaktivity.nukleus.Configuration;
+import org.reaktivity.reaktive.httpserver.internal.layouts.StreamsLayout;
+import org.reaktivity.reaktive.httpserver.internal.routable.Routable;
+import org.reaktivity.reaktive.httpserver.internal.routable.Target;
+import org.reaktivity.reaktive.httpserver.internal.types.HttpHeaderFW;
+import org.reaktivity.reaktive.httpserver.internal.types.ListFW;
+import org.reaktivity.reaktive.httpserver.internal.types.OctetsFW;
+import org.reaktivity.reaktive.httpserver.internal.types.stream.BeginFW;
+import org.reaktivity.reaktive.httpserver.internal.types.stream.DataFW;
+import org.reaktivity.reaktive.httpserver.internal.types.stream.EndFW;
+import org.reaktivity.reaktive.httpserver.internal.types.stream.HttpBeginExFW;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Fork(3)
+@Warmup(iterations = 5, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = SECONDS)
+@OutputTimeUnit(SECONDS)
+@SuppressWarnings("restriction")
+public class StreamsBM
+{
+    private static final String SOURCE_NAME = "http";
+    private static final String PARTITION_NAME = "http#tcp";
+    private static final String ENCODER_NAME = "encoder";
+
+    private final BeginFW.Builder beginRW = new BeginFW.Builder();
+    private final DataFW.Builder dataRW = new DataFW.Builder();
+    private final EndFW.Builder endRW = new EndFW.Builder();
+    private final HttpBeginExFW.Builder httpBeginExRW = new HttpBeginExFW.Builder();
+
+    private final MutableDirectBuffer frameBuffer = new UnsafeBuffer(new byte[1024]);
+    private final MutableDirectBuffer extensionBuffer = new UnsafeBuffer(new byte[1024]);
+    private final MutableDirectBuffer payloadBuffer = new UnsafeBuffer("Hello, world".getBytes(UTF_8));
+
+    private final MessageHandler discard = (msgTypeId, buffer, index, length) -> { };
+    private final Consumer<OctetsFW.Builder> setExtension = e -> e.set(extensionBuffer, 0, this.extensionLength);
+    private final Consumer<OctetsFW.Builder> setPayload = p -> p.set(payloadBuffer, 0, payloadBuffer.capacity());
+    private final Consumer<OctetsFW.Builder> resetExtension = e -> e.reset();
+    private final Consumer<ListFW.Builder<HttpHeaderFW.Builder, HttpHeaderFW>> responseHeaders = hs ->
+    {
+        hs.item(h -> h.name(":status").value("200"));
+        hs.item(h -> h.name("content-type").value("application/json"));
+        hs.item(h -> h.name("cache-control").value("no-cache"));
+    };
+
+    private Path directory;
+    private Context context;
+    private StreamsLayout source;
+    private StreamsLayout target;
+    private StreamsLayout encoderLayout;
+    private Routable routable;
+    private Target encoder;
+    private int extensionLength;
+    private long streamId;
+
+    @Setup
+    public void init() throws Exception
+    {
+        this.directory = Files.createTempDirectory("httpserver-bm");
+
+        final Properties properties = new Properties();
+        properties.setProperty(DIRECTORY_PROPERTY_NAME, directory.toString());
+
+        this.context = new Context();
+        context.conclude(new Configuration(properties));
+        context.streamPoolCapacity(64);
+
+        final HttpContextTable contexts = new HttpContextTable();
+        contexts.add(new HttpServerStub(), "/").setHandler(exchange -> exchange.sendResponseHeaders(204, -1L));
+
+        final Resolver resolver = new Resolver();
+        resolver.delegate(contexts);
+
+        this.extensionLength = httpBeginExRW.wrap(extensionBuffer, 0, extensionBuffer.capacity())
+                .headers(hs ->
+                {
+                    hs.item(h -> h.name(":scheme").value("http"));
+                    hs.item(h -> h.name(":method").value("POST"));
+                    hs.item(h -> h.name(":path").value("/api/items"));
+                    hs.item(h -> h.name(":authority").value("localhost:8080"));
+                    hs.item(h -> h.name("content-type").value("text/plain"));
+                    hs.item(h -> h.name("content-length").value("12"));
+                })
+                .build()
+                .sizeof();
+
+        this.source = newStreamsLayout(context.sourceStreamsPath().apply(PARTITION_NAME), false);
+
+        this.routable = new Routable(context, SOURCE_NAME, resolver);
+        routable.onReadable(PARTITION_NAME);
+
+        this.target = newStreamsLayout(context.targetStreamsPath().apply(SOURCE_NAME, SOURCE_NAME), true);
+
+        this.encoderLayout = newStreamsLayout(context.targetStreamsPath().apply(SOURCE_NAME, ENCODER_NAME), false);
+        this.encoder = new Target(context, ENCODER_NAME, encoderLayout, new UnsafeBuffer(new byte[context.maxMessageLength()]));
+    }
+
+    @TearDown
+    public void close() throws Exception
+    {
+        routable.close();
+        encoder.close();
+        source.close();
+        target.close();
+        context.close();
+
+        IoUtil.delete(directory.toFile(), true);
+    }
+
+    @Benchmark
+    public int handleRequest()
+    {
+        final long streamId = ++this.streamId;
+
+        final BeginFW begin = beginRW.wrap(frameBuffer, 0, frameBuffer.capacity())
+                .streamId(streamId)
+                .referenceId(1L)
+                .correlationId(streamId)
+                .extension(setExtension)
+                .build();
+        source.streamsBuffer().write(begin.typeId(), begin.buffer(), begin.offset(), begin.sizeof());
+
+        final DataFW data = dataRW.wrap(frameBuffer, 0, frameBuffer.capacity())
+                .streamId(streamId)
+                .payload(setPayload)
+                .extension(resetExtension)
+                .build();
+        source.streamsBuffer().write(data.typeId(), data.buffer(), data.offset(), data.sizeof());
+
+        final EndFW end = endRW.wrap(frameBuffer, 0, frameBuffer.capacity())
+                .streamId(streamId)
+                .extension(resetExtension)
+                .build();
+        source.streamsBuffer().write(end.typeId(), end.buffer(), end.offset(), end.sizeof());
+
+        int workCount = routable.process();
+        workCount += target.streamsBuffer().read(discard);
+        workCount += source.throttleBuffer().read(discard);
+
+        return workCount;
+    }
+
+    @Benchmark
+    public int encodeHttpBegin()
+    {
+        final long streamId = ++this.streamId;
+
+        encoder.doHttpBegin(streamId, 0L, streamId, responseHeaders);
+
+        return encoderLayout.streamsBuffer().read(discard);
+    }
+
+    private StreamsLayout newStreamsLayout(
+        Path path,
+        boolean readonly) throws Exception
+    {
+        Files.createDirectories(path.getParent());
+
+        return new StreamsLayout.Builder()
+                .path(path)
+                .streamsCapacity(context.streamsBufferCapacity())
+                .throttleCapacity(context.throttleBufferCapacity())
+                .readonly(readonly)
+                .build();
+    }
+
+    public static void main(
+        String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+                .include(StreamsBM.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
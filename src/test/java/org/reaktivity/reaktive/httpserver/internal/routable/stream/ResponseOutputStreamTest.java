@@ -0,0 +1,62 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver.internal.routable.stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class ResponseOutputStreamTest
+{
+    @Test
+    public void shouldBufferInlineResponseUpToFewSlots() throws Exception
+    {
+        final ResponseOutputStream output = newInlineOutput(1024);
+
+        output.write(new byte[4 * 1024]);
+    }
+
+    @Test
+    public void shouldRejectInlineResponseBeyondFewSlots() throws Exception
+    {
+        final ResponseOutputStream output = newInlineOutput(1024);
+
+        output.write(new byte[4 * 1024]);
+
+        try
+        {
+            output.write(0);
+            fail("expected IOException");
+        }
+        catch (IOException ex)
+        {
+            assertEquals("response too large to buffer without an executor", ex.getMessage());
+        }
+    }
+
+    private static ResponseOutputStream newInlineOutput(
+        int capacity)
+    {
+        final ResponseOutputStream output = new ResponseOutputStream(capacity, null, () -> {}, () -> {}, (b, o, l) -> {});
+        output.init(1L);
+        output.blocking(false);
+        output.open(false);
+        return output;
+    }
+}
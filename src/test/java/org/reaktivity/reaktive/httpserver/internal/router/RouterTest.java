@@ -0,0 +1,124 @@
+/**
+ * Copyright 2016-2017 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.reaktive.httpserver.internal.router;
+
+import static org.junit.Assert.assertEquals;
+import static org.reaktivity.nukleus.Configuration.DIRECTORY_PROPERTY_NAME;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.reaktivity.nukleus.Configuration;
+import org.reaktivity.reaktive.httpserver.internal.Context;
+import org.reaktivity.reaktive.httpserver.internal.Resolver;
+import org.reaktivity.reaktive.httpserver.internal.layouts.StreamsLayout;
+
+public class RouterTest
+{
+    private static final String SOURCE_NAME = "http";
+    private static final String PARTITION_NAME = "http#tcp";
+
+    @Rule
+    public final TemporaryFolder directory = new TemporaryFolder();
+
+    private Context context;
+    private StreamsLayout source;
+
+    @Before
+    public void init() throws Exception
+    {
+        final Properties properties = new Properties();
+        properties.setProperty(DIRECTORY_PROPERTY_NAME, directory.getRoot().getPath());
+
+        this.context = new Context();
+        context.conclude(new Configuration(properties));
+
+        final Path sourcePath = context.sourceStreamsPath().apply(PARTITION_NAME);
+        Files.createDirectories(sourcePath.getParent());
+        Files.createDirectories(context.targetStreamsPath().apply(SOURCE_NAME, SOURCE_NAME).getParent());
+
+        this.source = new StreamsLayout.Builder()
+                .path(sourcePath)
+                .streamsCapacity(context.streamsBufferCapacity())
+                .throttleCapacity(context.throttleBufferCapacity())
+                .readonly(false)
+                .build();
+    }
+
+    @After
+    public void close() throws Exception
+    {
+        source.close();
+        context.close();
+    }
+
+    @Test
+    public void shouldRemoveRoutableWhenLastPartitionExpires() throws Exception
+    {
+        try (Router router = newRouter())
+        {
+            final Path sourcePath = context.sourceStreamsPath().apply(PARTITION_NAME);
+
+            router.onReadable(sourcePath);
+            assertEquals(1, router.routableCount());
+
+            router.onExpired(sourcePath);
+            assertEquals(0, router.routableCount());
+        }
+    }
+
+    @Test(timeout = 5000L)
+    public void shouldRemoveShardedRoutableWhenPartitionExpires() throws Exception
+    {
+        context.workerCount(2);
+
+        try (Router router = newRouter())
+        {
+            final Path sourcePath = context.sourceStreamsPath().apply(PARTITION_NAME);
+
+            router.onReadable(sourcePath);
+            assertEquals(2, router.routableCount());
+            awaitWorkerRoutableCount(router, 1);
+
+            router.onExpired(sourcePath);
+            assertEquals(0, router.routableCount());
+            awaitWorkerRoutableCount(router, 0);
+        }
+    }
+
+    private Router newRouter()
+    {
+        final Router router = new Router(context);
+        router.setResolver(new Resolver());
+        return router;
+    }
+
+    private static void awaitWorkerRoutableCount(
+        Router router,
+        int expected) throws InterruptedException
+    {
+        while (router.workerRoutableCount() != expected)
+        {
+            Thread.sleep(10L);
+        }
+    }
+}
@@ -20,6 +20,8 @@ import static org.reaktivity.nukleus.Configuration.DIRECTORY_PROPERTY_NAME;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 import org.junit.rules.TestRule;
 import org.junit.runner.Description;
@@ -27,6 +29,7 @@ import org.junit.runners.model.Statement;
 import org.reaktivity.nukleus.Configuration;
 import org.reaktivity.reaktive.httpserver.internal.HttpServerProviderImpl;
 
+import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 
@@ -34,6 +37,7 @@ import com.sun.net.httpserver.HttpServer;
 public final class HttpServerRule implements TestRule
 {
     private final Properties properties = new Properties();
+    private final Properties systemProperties = new Properties();
 
     private HttpServer server;
 
@@ -44,14 +48,32 @@ public final class HttpServerRule implements TestRule
         return this;
     }
 
+    public HttpServerRule systemProperty(
+        String name,
+        String value)
+    {
+        systemProperties.setProperty(name, value);
+        return this;
+    }
+
     public HttpServerRule init(
         InetSocketAddress address,
         int backlog)
     {
         final Configuration config = HttpServerProviderImpl.CONFIGURATION.get();
+        final Properties previous = new Properties();
 
         try
         {
+            systemProperties.stringPropertyNames().forEach(name ->
+            {
+                String value = System.setProperty(name, systemProperties.getProperty(name));
+                if (value != null)
+                {
+                    previous.setProperty(name, value);
+                }
+            });
+
             HttpServerProviderImpl.CONFIGURATION.set(new Configuration(properties));
             this.server = HttpServer.create(address, backlog);
         }
@@ -62,6 +84,17 @@ public final class HttpServerRule implements TestRule
         finally
         {
             HttpServerProviderImpl.CONFIGURATION.set(config);
+            systemProperties.stringPropertyNames().forEach(name ->
+            {
+                if (previous.containsKey(name))
+                {
+                    System.setProperty(name, previous.getProperty(name));
+                }
+                else
+                {
+                    System.clearProperty(name);
+                }
+            });
         }
         return this;
     }
@@ -69,12 +102,34 @@ public final class HttpServerRule implements TestRule
     public HttpServerRule handler(
         String path,
         HttpHandler handler)
+    {
+        return handler(path, handler, context -> {});
+    }
+
+    public HttpServerRule handler(
+        String path,
+        HttpHandler handler,
+        Consumer<HttpContext> configurer)
     {
         HttpServer server = serverAfterInit();
-        server.createContext(path, handler);
+        configurer.accept(server.createContext(path, handler));
         return this;
     }
 
+    public HttpServerRule executor(
+        Executor executor)
+    {
+        HttpServer server = serverAfterInit();
+        server.setExecutor(executor);
+        return this;
+    }
+
+    public Executor executor()
+    {
+        HttpServer server = serverAfterInit();
+        return server.getExecutor();
+    }
+
     @Override
     public Statement apply(
         Statement base,